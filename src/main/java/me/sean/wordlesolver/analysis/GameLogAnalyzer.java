@@ -0,0 +1,211 @@
+package me.sean.wordlesolver.analysis;
+
+import me.sean.wordlesolver.dictionary.Dictionary;
+import me.sean.wordlesolver.dictionary.Pattern;
+import me.sean.wordlesolver.metrics.LatencyMetrics;
+import me.sean.wordlesolver.solver.CalculateInformation;
+import me.sean.wordlesolver.solver.CandidateSet;
+import me.sean.wordlesolver.solver.RankingCache;
+import me.sean.wordlesolver.solver.ScoringMode;
+import me.sean.wordlesolver.solver.Solver;
+import me.sean.wordlesolver.solver.SolverPolicy;
+import me.sean.wordlesolver.solver.WordData;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Replays logs of played games through the solver and reports, for every move, how many
+ * answers were possible, how good the word played was compared to the best word, and how
+ * lucky its result was, all in bits of information whatever mode the solver is set to.
+ * Each log line is one game of space separated moves written as GUESS:RESULT, where the
+ * result has one of G, Y or B (or 2, 1, 0) per letter.
+ * Logs are streamed one line at a time and separate log shards are replayed in parallel,
+ * sharing one bounded cache of rankings made with the {@link SolverPolicy#SIMULATION} policy
+ *
+ * @author Sean Droll
+ */
+public class GameLogAnalyzer {
+    private static final int CACHE_ENTRIES = 100_000;
+    private static final int CACHE_KEEP = 1;
+    private final Solver solver;
+    private final RankingCache cache;
+    private final Pattern codec;
+
+    /**
+     * Totals over every analysed game
+     */
+    public static class Summary {
+        private long games;
+        private long invalidGames;
+        private long solved;
+        private long moves;
+        private long luckMoves;
+        private double luck;
+        private double loss;
+
+        /**
+         * Adds another summary to this one
+         * @param other the summary to add
+         * @return this summary
+         */
+        public Summary combine(Summary other) {
+            this.games += other.games;
+            this.invalidGames += other.invalidGames;
+            this.solved += other.solved;
+            this.moves += other.moves;
+            this.luckMoves += other.luckMoves;
+            this.luck += other.luck;
+            this.loss += other.loss;
+            return this;
+        }
+
+        @Override
+        public String toString() {
+            double perMove = this.moves == 0 ? 0 : 1.0 / this.moves;
+            double perLuckMove = this.luckMoves == 0 ? 0 : 1.0 / this.luckMoves;
+            return String.format("%d games (%d invalid, %d solved), %d moves, mean luck %.4f bits, mean loss %.4f bits",
+                    this.games, this.invalidGames, this.solved, this.moves, this.luck * perLuckMove, this.loss * perMove);
+        }
+    }
+
+    /**
+     * Creates a new analyzer
+     * @param solver the solver to compare moves against, its priors weight the answers
+     */
+    public GameLogAnalyzer(Solver solver) {
+        this.solver = solver;
+        this.cache = new RankingCache(solver, CACHE_ENTRIES, CACHE_KEEP);
+        this.codec = Pattern.forLength(solver.getPack().getLength());
+    }
+
+    /**
+     * Analyses several log shards in parallel, writing each shard's report next to it
+     * with a .csv extension added
+     * @param shards the log files
+     * @return the totals over every shard
+     */
+    public Summary analyze(List<Path> shards) {
+        return shards.parallelStream().map(shard -> {
+            Path output = shard.resolveSibling(shard.getFileName() + ".csv");
+            try(BufferedReader in = Files.newBufferedReader(shard, StandardCharsets.UTF_8);
+                PrintWriter out = new PrintWriter(Files.newBufferedWriter(output, StandardCharsets.UTF_8))) {
+                out.println(MoveReport.csvHeader());
+                return analyze(in, report -> out.println(report.toCsv()));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }).reduce(Summary::combine).orElseGet(Summary::new);
+    }
+
+    /**
+     * Analyses one log, one game at a time
+     * @param log the log to read
+     * @param sink receives the report of every move
+     * @return the totals over the log
+     * @throws IOException if the log can not be read
+     */
+    public Summary analyze(BufferedReader log, Consumer<MoveReport> sink) throws IOException {
+        Summary summary = new Summary();
+        long lineNumber = 0;
+        String line = log.readLine();
+        while(line != null) {
+            lineNumber++;
+            if(!line.isBlank()) {
+                analyzeGame(lineNumber, line, summary, sink);
+            }
+            line = log.readLine();
+        }
+        return summary;
+    }
+
+    /**
+     * Replays a single game
+     * @param game the line number of the game
+     * @param line the moves of the game
+     * @param summary the totals to add to
+     * @param sink receives the report of every move
+     */
+    private void analyzeGame(long game, String line, Summary summary, Consumer<MoveReport> sink) {
+        summary.games++;
+        CandidateSet candidates = this.solver.getAllCandidates();
+        List<MoveReport> reports = new ArrayList<>();
+        int move = 0;
+        for(String token : line.strip().split("\\s+")) {
+            move++;
+            int colon = token.indexOf(':');
+            int pattern = colon < 0 ? -1 : this.codec.parse(token.substring(colon + 1));
+            String guess = colon < 0 ? token : token.substring(0, colon).toUpperCase();
+            CandidateSet next = pattern < 0 ? null : this.solver.filter(candidates, guess, pattern);
+            if(next == null || next.size() == 0) {
+                summary.invalidGames++;
+                return;
+            }
+            WordData best = this.cache.get(candidates, SolverPolicy.SIMULATION).get(0);
+            double played = this.solver.score(guess, candidates, ScoringMode.ENTROPY);
+            // a ranking cut short by the time budget may miss the word played, which is then the best known
+            if(played > best.getData()) {
+                best = new WordData(guess, played);
+            }
+            double before = this.solver.weight(candidates, ScoringMode.ENTROPY);
+            double remaining = this.solver.weight(next, ScoringMode.ENTROPY);
+            // a result the priors give no weight to is infinitely surprising, so its luck is left undefined
+            double luck = before > 0 && remaining > 0 ? Math.log(before / remaining) / CalculateInformation.LN_2 - played
+                    : Double.NaN;
+            reports.add(new MoveReport(game, move, guess, candidates.size(), played, best.getWord(),
+                    best.getData(), luck));
+            candidates = next;
+            if(pattern == this.codec.solved()) {
+                summary.solved++;
+                break;
+            }
+        }
+        for(MoveReport report : reports) {
+            summary.moves++;
+            if(!Double.isNaN(report.luck())) {
+                summary.luckMoves++;
+                summary.luck += report.luck();
+            }
+            summary.loss += report.bestScore() - report.played();
+            sink.accept(report);
+        }
+    }
+
+    /**
+     * Gets the cache of rankings shared by every shard
+     * @return the ranking cache
+     */
+    public RankingCache getCache() {
+        return cache;
+    }
+
+    /**
+     * Analyses the given log files with the default dictionary pack
+     * @param args the log files
+     */
+    public static void main(String[] args) {
+        if(args.length == 0) {
+            System.err.println("Usage: GameLogAnalyzer <log>...");
+            System.exit(-1);
+        }
+        List<Path> shards = new ArrayList<>();
+        for(String arg : args) {
+            shards.add(Path.of(arg));
+        }
+        GameLogAnalyzer analyzer = new GameLogAnalyzer(new Solver(Dictionary.getDefault()));
+        long start = System.nanoTime();
+        Summary summary = analyzer.analyze(shards);
+        System.out.println(summary);
+        System.out.printf("%.1f s, %d cached rankings used, %d computed%n", (System.nanoTime() - start) / 1e9,
+                analyzer.getCache().getHits(), analyzer.getCache().getMisses());
+        System.out.print(LatencyMetrics.report());
+    }
+}
@@ -0,0 +1,37 @@
+package me.sean.wordlesolver.analysis;
+
+/**
+ * How one move of a logged game compares to the solver's choice
+ *
+ * @param game the line number of the game in its log
+ * @param move the number of the move in the game, starting at 1
+ * @param guess the word that was played
+ * @param candidates the number of answers possible before the move
+ * @param played the expected information of the word played, in bits
+ * @param best the word the solver would have played
+ * @param bestScore the expected information of the solver's word, in bits
+ * @param luck the information actually gained minus the information expected from the word played,
+ *             NaN if the priors give the answers before or after the move no weight
+ *
+ * @author Sean Droll
+ */
+public record MoveReport(long game, int move, String guess, int candidates, double played,
+                         String best, double bestScore, double luck) {
+
+    /**
+     * Gets the column names matching {@link #toCsv()}
+     * @return the csv header line
+     */
+    public static String csvHeader() {
+        return "game,move,guess,candidates,played,best,best_score,luck";
+    }
+
+    /**
+     * Formats the report as a csv line
+     * @return the report as comma separated values
+     */
+    public String toCsv() {
+        return String.format("%d,%d,%s,%d,%.4f,%s,%.4f,%.4f", this.game, this.move, this.guess, this.candidates,
+                this.played, this.best, this.bestScore, this.luck);
+    }
+}
@@ -0,0 +1,88 @@
+package me.sean.wordlesolver.dictionary;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * The word lists of a dictionary pack, read once and shared by the model, the solver and the view
+ *
+ * @author Sean Droll
+ */
+public class Dictionary {
+    private final DictionaryPack pack;
+    private final WordList guesses;
+    private final WordList answers;
+
+    /**
+     * Creates a new dictionary
+     * @param pack the pack the words came from
+     * @param guesses the words that can be guessed
+     * @param answers the words that can be the answer
+     */
+    private Dictionary(DictionaryPack pack, WordList guesses, WordList answers) {
+        this.pack = pack;
+        this.guesses = guesses;
+        this.answers = answers;
+    }
+
+    /**
+     * Reads both word lists of a pack at the same time. Prefer {@link DictionaryPack#getDictionary()},
+     * which only does this once per pack
+     * @param pack the pack to read
+     * @return the dictionary
+     */
+    static Dictionary load(DictionaryPack pack) {
+        CompletableFuture<WordList> guesses = CompletableFuture.supplyAsync(() -> read(pack, DictionaryPack.Resource.GUESSES));
+        WordList answers = read(pack, DictionaryPack.Resource.ANSWERS);
+        return new Dictionary(pack, guesses.join(), answers);
+    }
+
+    /**
+     * Reads and parses a single word list
+     * @param pack the pack containing the list
+     * @param resource the list to read
+     * @return the parsed list
+     */
+    private static WordList read(DictionaryPack pack, DictionaryPack.Resource resource) {
+        return WordList.parse(pack.readBytes(resource), pack.getLength(), pack.getName() + "/" + resource.getKey());
+    }
+
+    /**
+     * Gets the default pack's dictionary
+     * @return the shared dictionary
+     */
+    public static Dictionary getDefault() {
+        return DictionaryPack.getDefault().getDictionary();
+    }
+
+    /**
+     * Gets the pack the words came from
+     * @return the pack
+     */
+    public DictionaryPack getPack() {
+        return pack;
+    }
+
+    /**
+     * Gets the length of every word
+     * @return the word length
+     */
+    public int getLength() {
+        return this.pack.getLength();
+    }
+
+    /**
+     * Gets the words that can be guessed
+     * @return the guess list
+     */
+    public WordList getGuesses() {
+        return guesses;
+    }
+
+    /**
+     * Gets the words that can be the answer
+     * @return the answer list
+     */
+    public WordList getAnswers() {
+        return answers;
+    }
+}
@@ -0,0 +1,310 @@
+package me.sean.wordlesolver.dictionary;
+
+import java.io.*;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A pluggable set of word lists and precomputed data for one variant of the game,
+ * described by a pack.properties manifest either on the classpath or in a directory
+ *
+ * @author Sean Droll
+ */
+public class DictionaryPack {
+    public static final int MIN_LENGTH = 4;
+    public static final int MAX_LENGTH = 8;
+    public static final String DEFAULT_PACK = "wordle5";
+    public static final String PACK_PROPERTY = "wordle.pack";
+    private static final String PACKS_ROOT = "packs/";
+    private static final String MANIFEST = "pack.properties";
+    private static final Map<String, DictionaryPack> LOADED = new ConcurrentHashMap<>();
+    private final String name;
+    private final int length;
+    private final int patternCount;
+    private final Properties manifest;
+    private final String resourceRoot;
+    private final Path directory;
+    private volatile Dictionary dictionary;
+
+    /**
+     * Enum representing the files a pack can provide
+     */
+    public enum Resource {
+        GUESSES("guesses"),
+        ANSWERS("answers"),
+        MATRIX("matrix"),
+        OPENERS("openers"),
+        PRIORS("priors"),
+        PARTITIONS("partitions");
+
+        final String key;
+
+        /**
+         * Creates a new resource
+         * @param key the key of the resource in the manifest
+         */
+        Resource(String key) {
+            this.key = key;
+        }
+
+        /**
+         * Gets the key of the resource in the manifest
+         * @return the manifest key
+         */
+        public String getKey() {
+            return key;
+        }
+    }
+
+    /**
+     * Creates a new pack from its manifest
+     * @param manifest the parsed pack.properties
+     * @param resourceRoot the classpath prefix of the pack, null if the pack is a directory
+     * @param directory the directory of the pack, null if the pack is on the classpath
+     */
+    private DictionaryPack(Properties manifest, String resourceRoot, Path directory) {
+        this.manifest = manifest;
+        this.resourceRoot = resourceRoot;
+        this.directory = directory;
+        this.name = manifest.getProperty("name", directory == null ? resourceRoot : directory.getFileName().toString());
+        this.length = Integer.parseInt(manifest.getProperty("length", "5").strip());
+        if(this.length < MIN_LENGTH || this.length > MAX_LENGTH) {
+            throw new IllegalArgumentException("Word length of pack " + this.name + " must be between "
+                    + MIN_LENGTH + " and " + MAX_LENGTH + ", was " + this.length);
+        }
+        this.patternCount = Pattern.forLength(this.length).count();
+        if(!has(Resource.GUESSES) || !has(Resource.ANSWERS)) {
+            throw new IllegalArgumentException("Pack " + this.name + " must list both guesses and answers");
+        }
+    }
+
+    /**
+     * Loads a pack that is bundled on the classpath under packs/name
+     * @param name the name of the pack
+     * @return the pack
+     */
+    public static DictionaryPack load(String name) {
+        String root = PACKS_ROOT + name + "/";
+        try(InputStream in = DictionaryPack.class.getClassLoader().getResourceAsStream(root + MANIFEST)) {
+            if(in == null) {
+                throw new IllegalArgumentException("Unknown dictionary pack: " + name);
+            }
+            return new DictionaryPack(readManifest(in), root, null);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Loads a pack from a directory containing a pack.properties file
+     * @param directory the directory of the pack
+     * @return the pack
+     */
+    public static DictionaryPack load(Path directory) {
+        try(InputStream in = Files.newInputStream(directory.resolve(MANIFEST))) {
+            return new DictionaryPack(readManifest(in), null, directory);
+        } catch (NoSuchFileException e) {
+            throw new IllegalArgumentException("No " + MANIFEST + " in " + directory);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Gets the pack chosen with the wordle.pack system property, which may be either the
+     * name of a bundled pack or a directory, falling back to the standard game. The same
+     * instance is returned every time so its dictionary is only read once
+     * @return the selected pack
+     */
+    public static DictionaryPack getDefault() {
+        String selected = System.getProperty(PACK_PROPERTY, DEFAULT_PACK);
+        return LOADED.computeIfAbsent(selected, DictionaryPack::resolve);
+    }
+
+    /**
+     * Loads a pack named on the command line or in a property, which may be either the name
+     * of a bundled pack or a directory
+     * @param pack the name or directory of the pack
+     * @return the pack
+     */
+    public static DictionaryPack resolve(String pack) {
+        Path directory = Path.of(pack);
+        return Files.isDirectory(directory) ? load(directory) : load(pack);
+    }
+
+    /**
+     * Parses a manifest
+     * @param in the stream containing the manifest
+     * @return the manifest properties
+     * @throws IOException if the manifest can not be read
+     */
+    private static Properties readManifest(InputStream in) throws IOException {
+        Properties properties = new Properties();
+        properties.load(new InputStreamReader(in, StandardCharsets.UTF_8));
+        return properties;
+    }
+
+    /**
+     * Checks whether the pack lists a resource in its manifest. A listed resource must be
+     * present, reading one that is missing fails rather than falling back
+     * @param resource the resource to check
+     * @return true if the manifest names the resource
+     */
+    public boolean has(Resource resource) {
+        String file = this.manifest.getProperty(resource.getKey());
+        return file != null && !file.isBlank();
+    }
+
+    /**
+     * Opens one of the pack's resources
+     * @param resource the resource to open
+     * @return a stream of the resource's contents
+     * @throws IOException if the resource is not listed, listed but missing, or can not be read
+     */
+    public InputStream open(Resource resource) throws IOException {
+        if(!has(resource)) {
+            throw new FileNotFoundException("Pack " + this.name + " has no " + resource.getKey());
+        }
+        if(this.directory != null) {
+            Path file = this.directory.resolve(fileName(resource));
+            if(!Files.isRegularFile(file)) {
+                throw missing(resource);
+            }
+            return Files.newInputStream(file);
+        }
+        InputStream in = DictionaryPack.class.getClassLoader().getResourceAsStream(this.resourceRoot + fileName(resource));
+        if(in == null) {
+            throw missing(resource);
+        }
+        return in;
+    }
+
+    /**
+     * Describes a resource that is listed in the manifest but can not be found
+     * @param resource the resource
+     * @return the exception to throw
+     */
+    private FileNotFoundException missing(Resource resource) {
+        return new FileNotFoundException("Pack " + this.name + " lists " + resource.getKey() + " as "
+                + fileName(resource) + " but the file is missing");
+    }
+
+    /**
+     * Reads the whole of a resource. Files are memory mapped rather than copied, resources
+     * inside a jar are read in a single call
+     * @param resource the resource to read
+     * @return a buffer containing the resource's contents
+     * @throws RuntimeException if the resource is not listed, listed but missing, or can not be read
+     */
+    public ByteBuffer readBytes(Resource resource) {
+        try {
+            Path file = locate(resource);
+            if(file != null) {
+                if(!Files.isRegularFile(file)) {
+                    throw missing(resource);
+                }
+                try(FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                    return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+                }
+            }
+            try(InputStream in = open(resource)) {
+                return ByteBuffer.wrap(in.readAllBytes());
+            }
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Finds the file backing a resource when there is one, which is what {@link #readBytes(Resource)} maps
+     * @param resource the resource
+     * @return the path of the file, or null if the resource is not listed or is not a plain file
+     */
+    public Path locate(Resource resource) {
+        if(!has(resource)) return null;
+        if(this.directory != null) {
+            return this.directory.resolve(fileName(resource));
+        }
+        URL url = DictionaryPack.class.getClassLoader().getResource(this.resourceRoot + fileName(resource));
+        if(url == null || !"file".equals(url.getProtocol())) return null;
+        try {
+            return Path.of(url.toURI());
+        } catch (URISyntaxException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Gets the words of this pack, reading them the first time they are needed
+     * @return the dictionary shared by everything using this pack
+     */
+    public Dictionary getDictionary() {
+        Dictionary loaded = this.dictionary;
+        if(loaded == null) {
+            synchronized(this) {
+                loaded = this.dictionary;
+                if(loaded == null) {
+                    loaded = Dictionary.load(this);
+                    this.dictionary = loaded;
+                }
+            }
+        }
+        return loaded;
+    }
+
+    /**
+     * Gets the file name of a resource as written in the manifest
+     * @param resource the resource
+     * @return the file name relative to the pack
+     */
+    private String fileName(Resource resource) {
+        return this.manifest.getProperty(resource.getKey()).strip();
+    }
+
+    /**
+     * Gets the name of the pack
+     * @return the name of the pack
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Gets the directory the pack was loaded from
+     * @return the directory, or null if the pack is on the classpath
+     */
+    public Path getDirectory() {
+        return directory;
+    }
+
+    /**
+     * Gets the length of every word in the pack
+     * @return the word length
+     */
+    public int getLength() {
+        return length;
+    }
+
+    /**
+     * Gets the number of distinct results a guess can have, 3 to the power of the word length
+     * @return the number of patterns
+     */
+    public int getPatternCount() {
+        return patternCount;
+    }
+
+    @Override
+    public String toString() {
+        return this.name + " (" + this.length + " letters)";
+    }
+}
@@ -0,0 +1,240 @@
+package me.sean.wordlesolver.dictionary;
+
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+
+/**
+ * Computes the result of a guess and converts it between its digits, a compact integer and a
+ * display string. A result is encoded in base 3 with the first letter as the most significant
+ * digit, GREEN = 2, YELLOW = 1 and GRAY = 0, so for words of length L exactly 3^L codes exist,
+ * numbered 0 to 3^L - 1. Decoding uses lookup tables so it never needs floating point
+ *
+ * @author Sean Droll
+ */
+public final class Pattern {
+    public static final int MIN_LENGTH = 1;
+    public static final int MAX_LENGTH = 8;
+    private static final char[] SYMBOLS = {'B', 'Y', 'G'};
+    private static final Pattern[] CODECS = new Pattern[MAX_LENGTH + 1];
+    private final int length;
+    private final int count;
+    private final int solved;
+    private final byte[] digits;
+    private final String[] strings;
+
+    /**
+     * Creates the codec for one word length, filling its lookup tables
+     * @param length the length of the words
+     */
+    private Pattern(int length) {
+        this.length = length;
+        int count = 1;
+        int solved = 0;
+        for(int i = 0; i < length; i++) {
+            count *= 3;
+            solved = solved * 3 + 2;
+        }
+        this.count = count;
+        this.solved = solved;
+        this.digits = new byte[count * length];
+        this.strings = new String[count];
+        char[] chars = new char[length];
+        for(int code = 0; code < count; code++) {
+            int rest = code;
+            for(int i = length - 1; i >= 0; i--) {
+                this.digits[code * length + i] = (byte) (rest % 3);
+                chars[i] = SYMBOLS[rest % 3];
+                rest /= 3;
+            }
+            this.strings[code] = new String(chars);
+        }
+    }
+
+    /**
+     * Gets the codec for a word length, the same instance is shared by every caller
+     * @param length the length of the words
+     * @return the codec
+     */
+    public static Pattern forLength(int length) {
+        if(length < MIN_LENGTH || length > MAX_LENGTH) {
+            throw new IllegalArgumentException("Pattern length must be between " + MIN_LENGTH + " and " + MAX_LENGTH);
+        }
+        synchronized(CODECS) {
+            if(CODECS[length] == null) {
+                CODECS[length] = new Pattern(length);
+            }
+            return CODECS[length];
+        }
+    }
+
+    /**
+     * Scores a guess against an answer without allocating. A letter is YELLOW if the answer
+     * has more of it outside the green positions than the guess used on earlier letters
+     * @param guess the packed id of the word guessed
+     * @param answer the packed id of the secret word
+     * @return the code of the result
+     */
+    public int score(long guess, long answer) {
+        int green = 0;
+        for(int i = 0; i < this.length; i++) {
+            if(WordList.letterAt(guess, this.length, i) == WordList.letterAt(answer, this.length, i)) {
+                green |= 1 << i;
+            }
+        }
+        int code = 0;
+        for(int i = 0; i < this.length; i++) {
+            int digit = 2;
+            if((green & 1 << i) == 0) {
+                int letter = WordList.letterAt(guess, this.length, i);
+                int available = 0;
+                for(int j = 0; j < this.length; j++) {
+                    if((green & 1 << j) == 0 && WordList.letterAt(answer, this.length, j) == letter) available++;
+                }
+                for(int j = 0; j < i && available > 0; j++) {
+                    if((green & 1 << j) == 0 && WordList.letterAt(guess, this.length, j) == letter) available--;
+                }
+                digit = available > 0 ? 1 : 0;
+            }
+            code = code * 3 + digit;
+        }
+        return code;
+    }
+
+    /**
+     * Encodes the digits of a guess
+     * @param digits one digit per letter, GREEN = 2, YELLOW = 1 and GRAY = 0
+     * @return the code of the result
+     */
+    public int encode(int[] digits) {
+        checkLength(digits.length);
+        int code = 0;
+        for(int digit : digits) {
+            if(digit < 0 || digit > 2) {
+                throw new IllegalArgumentException("Invalid result digit " + digit);
+            }
+            code = code * 3 + digit;
+        }
+        return code;
+    }
+
+    /**
+     * Parses a result written with one of G, Y or B (or 2, 1, 0) per letter, as produced
+     * by {@link #toString(int)}
+     * @param result the written result
+     * @return the code of the result, or -1 if it is not valid
+     */
+    public int parse(CharSequence result) {
+        if(result.length() != this.length) return -1;
+        int code = 0;
+        for(int i = 0; i < this.length; i++) {
+            int digit = switch (Character.toUpperCase(result.charAt(i))) {
+                case 'G', '2' -> 2;
+                case 'Y', '1' -> 1;
+                case 'B', 'X', '0', '-', '.' -> 0;
+                default -> -1;
+            };
+            if(digit < 0) return -1;
+            code = code * 3 + digit;
+        }
+        return code;
+    }
+
+    /**
+     * Gets one digit of a result
+     * @param code the code of the result
+     * @param position the position of the letter, starting at 0
+     * @return 2 for GREEN, 1 for YELLOW and 0 for GRAY
+     */
+    public int digit(int code, int position) {
+        return this.digits[code * this.length + position];
+    }
+
+    /**
+     * Decodes a result into one digit per letter
+     * @param code the code of the result
+     * @return the digits, GREEN = 2, YELLOW = 1 and GRAY = 0
+     */
+    public int[] digits(int code) {
+        checkCode(code);
+        int[] out = new int[this.length];
+        for(int i = 0; i < this.length; i++) {
+            out[i] = this.digits[code * this.length + i];
+        }
+        return out;
+    }
+
+    /**
+     * Gets the display string of a result, one of G, Y or B per letter
+     * @param code the code of the result
+     * @return the result as a string
+     */
+    public String toString(int code) {
+        checkCode(code);
+        return this.strings[code];
+    }
+
+    /**
+     * Iterates over every valid code, from 0 to {@link #count()} - 1
+     * @return an iterator over the codes
+     */
+    public PrimitiveIterator.OfInt iterator() {
+        return new PrimitiveIterator.OfInt() {
+            private int next = 0;
+
+            @Override
+            public boolean hasNext() {
+                return this.next < count;
+            }
+
+            @Override
+            public int nextInt() {
+                if(!hasNext()) throw new NoSuchElementException();
+                return this.next++;
+            }
+        };
+    }
+
+    /**
+     * Gets the number of valid codes, 3 to the power of the length
+     * @return the number of codes
+     */
+    public int count() {
+        return count;
+    }
+
+    /**
+     * Gets the code of guessing the answer
+     * @return the code with every letter green
+     */
+    public int solved() {
+        return solved;
+    }
+
+    /**
+     * Gets the length of the words the codec is for
+     * @return the word length
+     */
+    public int getLength() {
+        return length;
+    }
+
+    /**
+     * Checks that a code is valid
+     * @param code the code
+     */
+    private void checkCode(int code) {
+        if(code < 0 || code >= this.count) {
+            throw new IllegalArgumentException("Invalid pattern code " + code);
+        }
+    }
+
+    /**
+     * Checks that a result has one entry per letter
+     * @param length the number of entries
+     */
+    private void checkLength(int length) {
+        if(length != this.length) {
+            throw new IllegalArgumentException("Expected " + this.length + " results, got " + length);
+        }
+    }
+}
@@ -0,0 +1,298 @@
+package me.sean.wordlesolver.dictionary;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * An immutable list of words stored as packed ids, 5 bits per letter with the first letter
+ * in the most significant position, so a word of up to 8 letters fits in a long and
+ * packed ids of the same length sort alphabetically
+ *
+ * @author Sean Droll
+ */
+public class WordList {
+    private static final int BITS_PER_LETTER = 5;
+    private static final int LETTER_MASK = 0x1F;
+    private static final int CHUNK_SIZE = 1 << 16;
+    private final int length;
+    private final long[] ids;
+    private final String[] words;
+    private final int[] slots;
+    private final int shift;
+
+    /**
+     * Creates a new word list
+     * @param length the length of every word in the list
+     * @param ids the packed ids of the words, in file order
+     */
+    WordList(int length, long[] ids) {
+        this.length = length;
+        this.ids = ids;
+        this.words = new String[ids.length];
+        int bits = 1;
+        while((1 << bits) < ids.length * 2) {
+            bits++;
+        }
+        this.shift = 64 - bits;
+        this.slots = new int[1 << bits];
+        for(int i = 0; i < ids.length; i++) {
+            int slot = slot(ids[i]);
+            while(this.slots[slot] != 0 && this.ids[this.slots[slot] - 1] != ids[i]) {
+                slot = (slot + 1) & (this.slots.length - 1);
+            }
+            if(this.slots[slot] == 0) {
+                this.slots[slot] = i + 1;
+            }
+        }
+    }
+
+    /**
+     * Gets the first slot of the hash table to look for an id in
+     * @param id the packed id
+     * @return the index of the slot
+     */
+    private int slot(long id) {
+        return (int) ((id * 0x9E3779B97F4A7C15L) >>> this.shift);
+    }
+
+    /**
+     * Parses a word list straight from its bytes, one word per line, without creating
+     * Strings. Large files are split at line breaks and parsed in parallel
+     * @param bytes the contents of the word list
+     * @param length the length every word must have
+     * @param source the name of the file, used in error messages
+     * @return the parsed word list
+     */
+    static WordList parse(ByteBuffer bytes, int length, String source) {
+        long[] ids = ForkJoinPool.commonPool().invoke(new ParseTask(bytes, bytes.position(), bytes.limit(), length, source));
+        return new WordList(length, ids);
+    }
+
+    /**
+     * Parses one range of a word list, splitting it at a line break when it is too large
+     */
+    private static class ParseTask extends RecursiveTask<long[]> {
+        private static final long serialVersionUID = 1L;
+        private final ByteBuffer bytes;
+        private final int start;
+        private final int end;
+        private final int length;
+        private final String source;
+
+        /**
+         * Creates a new parse task
+         * @param bytes the whole file
+         * @param start the first byte of the range, always the start of a line
+         * @param end the byte after the range, always the end of a line
+         * @param length the length every word must have
+         * @param source the name of the file
+         */
+        ParseTask(ByteBuffer bytes, int start, int end, int length, String source) {
+            this.bytes = bytes;
+            this.start = start;
+            this.end = end;
+            this.length = length;
+            this.source = source;
+        }
+
+        @Override
+        protected long[] compute() {
+            if(this.end - this.start > CHUNK_SIZE) {
+                int split = this.start + (this.end - this.start) / 2;
+                while(split < this.end && this.bytes.get(split) != '\n') {
+                    split++;
+                }
+                if(split < this.end) {
+                    ParseTask left = new ParseTask(this.bytes, this.start, split + 1, this.length, this.source);
+                    ParseTask right = new ParseTask(this.bytes, split + 1, this.end, this.length, this.source);
+                    left.fork();
+                    long[] second = right.compute();
+                    long[] first = left.join();
+                    long[] joined = Arrays.copyOf(first, first.length + second.length);
+                    System.arraycopy(second, 0, joined, first.length, second.length);
+                    return joined;
+                }
+            }
+            return parseRange();
+        }
+
+        /**
+         * Parses every line in the range
+         * @return the packed ids of the words in the range
+         */
+        private long[] parseRange() {
+            long[] ids = new long[(this.end - this.start) / (this.length + 1) + 1];
+            int count = 0;
+            long id = 0;
+            int letters = 0;
+            for(int i = this.start; i < this.end; i++) {
+                int b = this.bytes.get(i);
+                if(b == '\n') {
+                    if(letters != 0) {
+                        ids = append(ids, count++, checkLength(id, letters));
+                    }
+                    id = 0;
+                    letters = 0;
+                } else if(b >= 'a' && b <= 'z' || b >= 'A' && b <= 'Z') {
+                    id = appendLetter(id, (b | 0x20) - 'a');
+                    letters++;
+                } else if(b != '\r' && b != ' ' && b != '\t') {
+                    throw new IllegalStateException("Invalid character '" + (char) b + "' in " + this.source);
+                }
+            }
+            if(letters != 0) {
+                ids = append(ids, count++, checkLength(id, letters));
+            }
+            return Arrays.copyOf(ids, count);
+        }
+
+        /**
+         * Checks that a parsed word has the right length
+         * @param id the packed id of the word
+         * @param letters the number of letters parsed
+         * @return the packed id
+         */
+        private long checkLength(long id, int letters) {
+            if(letters != this.length) {
+                throw new IllegalStateException("Word " + decode(id, Math.min(letters, 12)) + " in " + this.source
+                        + " does not have length " + this.length);
+            }
+            return id;
+        }
+
+        /**
+         * Stores an id, growing the array if needed
+         * @param ids the array of ids
+         * @param index where to store the id
+         * @param id the id to store
+         * @return the array containing the id
+         */
+        private static long[] append(long[] ids, int index, long id) {
+            if(index == ids.length) {
+                ids = Arrays.copyOf(ids, ids.length * 2 + 1);
+            }
+            ids[index] = id;
+            return ids;
+        }
+    }
+
+    /**
+     * Packs a word into its id
+     * @param word the word, in either case
+     * @return the packed id, or -1 if the word contains something other than letters
+     */
+    public static long encode(CharSequence word) {
+        long id = 0;
+        for(int i = 0; i < word.length(); i++) {
+            int c = word.charAt(i) | 0x20;
+            if(c < 'a' || c > 'z') return -1;
+            id = appendLetter(id, c - 'a');
+        }
+        return id;
+    }
+
+    /**
+     * Adds a letter to the end of a packed id
+     * @param id the packed id of the letters so far, 0 for none
+     * @param letter the letter as a number from 0 to 25
+     * @return the packed id with the letter appended
+     */
+    public static long appendLetter(long id, int letter) {
+        return (id << BITS_PER_LETTER) | (letter + 1);
+    }
+
+    /**
+     * Unpacks an id into an upper case word
+     * @param id the packed id
+     * @param length the length of the word
+     * @return the word
+     */
+    public static String decode(long id, int length) {
+        char[] chars = new char[length];
+        for(int i = length - 1; i >= 0; i--) {
+            chars[i] = (char) ('A' + (id & LETTER_MASK) - 1);
+            id >>>= BITS_PER_LETTER;
+        }
+        return new String(chars);
+    }
+
+    /**
+     * Gets one letter of a packed id
+     * @param id the packed id
+     * @param length the length of the word
+     * @param position the position of the letter, starting at 0
+     * @return the letter as a number from 0 to 25
+     */
+    public static int letterAt(long id, int length, int position) {
+        return (int) ((id >>> (BITS_PER_LETTER * (length - 1 - position))) & LETTER_MASK) - 1;
+    }
+
+    /**
+     * Gets the packed id of a word in the list
+     * @param index the position of the word
+     * @return the packed id
+     */
+    public long get(int index) {
+        return this.ids[index];
+    }
+
+    /**
+     * Gets a word in the list as a String, decoding it the first time it is asked for
+     * @param index the position of the word
+     * @return the word in upper case
+     */
+    public String word(int index) {
+        String word = this.words[index];
+        if(word == null) {
+            word = decode(this.ids[index], this.length);
+            this.words[index] = word;
+        }
+        return word;
+    }
+
+    /**
+     * Finds the position of a packed id in the list in constant time using an open
+     * addressing hash table, without allocating
+     * @param id the packed id
+     * @return the position of the first occurrence of the word, or -1 if it is not in the list
+     */
+    public int indexOf(long id) {
+        int mask = this.slots.length - 1;
+        for(int slot = slot(id); this.slots[slot] != 0; slot = (slot + 1) & mask) {
+            int index = this.slots[slot] - 1;
+            if(this.ids[index] == id) {
+                return index;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Finds the position of a word in the list
+     * @param word the word
+     * @return the position of the word, or -1 if it is not in the list
+     */
+    public int indexOf(String word) {
+        if(word == null || word.length() != this.length) return -1;
+        long id = encode(word);
+        return id < 0 ? -1 : indexOf(id);
+    }
+
+    /**
+     * Gets the number of words in the list
+     * @return the number of words
+     */
+    public int size() {
+        return this.ids.length;
+    }
+
+    /**
+     * Gets the length of every word in the list
+     * @return the word length
+     */
+    public int getLength() {
+        return length;
+    }
+}
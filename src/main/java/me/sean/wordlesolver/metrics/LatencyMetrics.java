@@ -0,0 +1,97 @@
+package me.sean.wordlesolver.metrics;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Records how long each request for suggestions took, grouped by quality tier, and how
+ * often a request ran out of time before finishing. Percentiles are taken over the most
+ * recent requests of each tier
+ *
+ * @author Sean Droll
+ */
+public final class LatencyMetrics {
+    private static final int WINDOW = 1024;
+    private static final Map<String, Tier> TIERS = new LinkedHashMap<>();
+
+    /**
+     * The measurements of one tier
+     */
+    private static final class Tier {
+        private final long[] recent = new long[WINDOW];
+        private long count;
+        private long incomplete;
+        private long totalNanos;
+        private long maxNanos;
+    }
+
+    private LatencyMetrics() {
+    }
+
+    /**
+     * Records one request
+     * @param tier the name of the quality tier
+     * @param nanos how long the request took in nanoseconds
+     * @param complete false if the request stopped at its deadline before finishing
+     */
+    public static synchronized void record(String tier, long nanos, boolean complete) {
+        Tier stats = TIERS.computeIfAbsent(tier, name -> new Tier());
+        stats.recent[(int) (stats.count % WINDOW)] = nanos;
+        stats.count++;
+        stats.totalNanos += nanos;
+        stats.maxNanos = Math.max(stats.maxNanos, nanos);
+        if(!complete) {
+            stats.incomplete++;
+        }
+    }
+
+    /**
+     * Gets the number of requests recorded for a tier
+     * @param tier the name of the quality tier
+     * @return the number of requests
+     */
+    public static synchronized long count(String tier) {
+        Tier stats = TIERS.get(tier);
+        return stats == null ? 0 : stats.count;
+    }
+
+    /**
+     * Gets a percentile of the latency of the most recent requests of a tier
+     * @param tier the name of the quality tier
+     * @param percentile the percentile, between 0 and 100
+     * @return the latency in nanoseconds, or 0 if nothing was recorded
+     */
+    public static synchronized long percentile(String tier, double percentile) {
+        Tier stats = TIERS.get(tier);
+        if(stats == null || stats.count == 0) return 0;
+        long[] sorted = Arrays.copyOf(stats.recent, (int) Math.min(stats.count, WINDOW));
+        Arrays.sort(sorted);
+        int index = (int) Math.ceil(percentile / 100 * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(index, sorted.length - 1))];
+    }
+
+    /**
+     * Forgets every request
+     */
+    public static synchronized void reset() {
+        TIERS.clear();
+    }
+
+    /**
+     * Describes the latency of every tier
+     * @return a line per tier with its request count, mean, median, 95th percentile and maximum
+     * in milliseconds, and the number of requests that ran out of time
+     */
+    public static synchronized String report() {
+        StringBuilder s = new StringBuilder();
+        for(Map.Entry<String, Tier> entry : TIERS.entrySet()) {
+            Tier stats = entry.getValue();
+            s.append(String.format("%-16s %6d requests  mean %7.1f  p50 %7.1f  p95 %7.1f  max %7.1f ms  %d out of time%n",
+                    entry.getKey(), stats.count, stats.totalNanos / 1e6 / stats.count,
+                    percentile(entry.getKey(), 50) / 1e6, percentile(entry.getKey(), 95) / 1e6,
+                    stats.maxNanos / 1e6, stats.incomplete));
+        }
+        return s.toString();
+    }
+}
@@ -0,0 +1,97 @@
+package me.sean.wordlesolver.metrics;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Records how long after the JVM started each phase of startup finished, most importantly
+ * the time until the solver gives its first suggestion
+ *
+ * @author Sean Droll
+ */
+public final class StartupMetrics {
+    public static final String METRICS_FILE_PROPERTY = "wordle.metrics";
+    public static final String FIRST_SUGGESTION = "first-suggestion";
+    private static final Instant JVM_START = Instant.ofEpochMilli(ManagementFactory.getRuntimeMXBean().getStartTime());
+    private static final Map<String, Duration> PHASES = new LinkedHashMap<>();
+    private static Instant origin = JVM_START;
+
+    private StartupMetrics() {
+    }
+
+    /**
+     * Records that a phase has finished, only the first time it finishes counts
+     * @param phase the name of the phase
+     */
+    public static synchronized void mark(String phase) {
+        PHASES.putIfAbsent(phase, Duration.between(origin, Instant.now()));
+    }
+
+    /**
+     * Gets how long after startup a phase finished
+     * @param phase the name of the phase
+     * @return the time since startup, or null if the phase has not finished
+     */
+    public static synchronized Duration get(String phase) {
+        return PHASES.get(phase);
+    }
+
+    /**
+     * Gets the time from startup until the first suggestion was shown
+     * @return the time to first suggestion, or null if there has not been one
+     */
+    public static Duration timeToFirstSuggestion() {
+        return get(FIRST_SUGGESTION);
+    }
+
+    /**
+     * Forgets every phase and starts measuring again from now, used when a process is
+     * restored from a checkpoint
+     */
+    public static synchronized void restart() {
+        PHASES.clear();
+        origin = Instant.now();
+    }
+
+    /**
+     * Describes every finished phase
+     * @return a line per phase with its time since startup in milliseconds
+     */
+    public static synchronized String report() {
+        StringBuilder s = new StringBuilder();
+        for(Map.Entry<String, Duration> entry : PHASES.entrySet()) {
+            s.append(String.format("%-20s %8.1f ms%n", entry.getKey(), entry.getValue().toNanos() / 1e6));
+        }
+        return s.toString();
+    }
+
+    /**
+     * Appends the finished phases as one csv line to the file named by the wordle.metrics
+     * system property, so startup time can be tracked across runs. Does nothing if the
+     * property is not set
+     * @param label a label for the run, such as the mode it was started in
+     */
+    public static synchronized void record(String label) {
+        String file = System.getProperty(METRICS_FILE_PROPERTY);
+        if(file == null) return;
+        StringBuilder line = new StringBuilder().append(Instant.now()).append(',').append(label);
+        for(Map.Entry<String, Duration> entry : PHASES.entrySet()) {
+            line.append(',').append(entry.getKey()).append('=').append(entry.getValue().toMillis());
+        }
+        try(PrintWriter out = new PrintWriter(Files.newBufferedWriter(Path.of(file), StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND))) {
+            out.println(line);
+        } catch (IOException e) {
+            System.err.println("Could not write startup metrics to " + file + ": " + e.getMessage());
+        }
+    }
+}
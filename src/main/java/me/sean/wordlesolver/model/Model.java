@@ -1,10 +1,16 @@
 package me.sean.wordlesolver.model;
 
 import javafx.scene.paint.Color;
+import me.sean.wordlesolver.dictionary.Dictionary;
+import me.sean.wordlesolver.dictionary.Pattern;
+import me.sean.wordlesolver.dictionary.WordList;
 import me.sean.wordlesolver.view.Observer;
 
-import java.io.*;
-import java.util.*;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
 
 /**
  * A model which represents the wordle game
@@ -12,21 +18,31 @@ import java.util.*;
  * @author Sean Droll
  */
 public class Model {
-    private static final int MAX_GUESSES = 6;
-    private static final int MAX_LENGTH = 5;
-    private static final String VALID_WORDS_PATH = "src/main/resources/valid-wordle-words.txt";
-    private static final String VALID_ANSWERS_PATH = "src/main/resources/valid-wordle-solutions.txt";
-    private static final List<String> VALID_WORDS = initializeFile(VALID_WORDS_PATH);
-    private final Observer<Model, String> observer;
-    private final Cell<String>[][] board = new Cell[MAX_GUESSES][MAX_LENGTH];
+    public static final int MAX_GUESSES = 6;
+    private final int length;
+    private final WordList validWords;
+    private final List<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+    private final Cell<String>[][] board;
     private int currentGuess = 0;
     private int currentCharacter = 0;
+    private final Pattern codec;
     private final String secretWord;
+    private final long secretId;
+    private final int[] guessLetters;
     private String lastGuessed = "";
-    private Colors[] lastColors = {null, null, null, null, null};
+    private final Colors[] lastColors;
+    private int lastPattern = -1;
     private GameState gameState;
     private final Random rng = new Random();
-    private final Map<Object, Colors> letterStatuses = new HashMap<>();
+    private final Colors[] letterStatuses = new Colors[26];
+
+    /**
+     * An observer together with the executor its events are handled on
+     * @param observer the observer
+     * @param executor runs the observer for each event
+     */
+    private record Subscriber(Observer<Model, ModelEvent> observer, Executor executor) {
+    }
 
     /**
      * Enum which represents the curerent state of the game
@@ -65,6 +81,7 @@ public class Model {
         YELLOW(Color.YELLOW),
         GRAY(Color.GRAY),
         WHITE(Color.WHITE);
+        private static final Colors[] BY_DIGIT = {GRAY, YELLOW, GREEN};
         private final Color c;
 
         /**
@@ -75,6 +92,21 @@ public class Model {
             this.c = c;
         }
 
+        /**
+         * Fills in the color of every letter of an encoded {@link Pattern}
+         * @param codec the codec for the length of the words
+         * @param code the code of the result
+         * @param colors filled with the color of each letter
+         */
+        public static void decode(Pattern codec, int code, Colors[] colors) {
+            if(colors.length != codec.getLength()) {
+                throw new IllegalArgumentException("Expected " + codec.getLength() + " colors, got " + colors.length);
+            }
+            for(int i = 0; i < colors.length; i++) {
+                colors[i] = BY_DIGIT[codec.digit(code, i)];
+            }
+        }
+
         /**
          * Gets the JavaFX color representing the color
          * @return the JavaFX color representing the color
@@ -84,21 +116,50 @@ public class Model {
         }
     }
 
+    /**
+     * Creates a new model with an observer for the default dictionary pack
+     * @param observer the observer that will monitor the Model, notified on the thread changing the model
+     */
+    public Model(Observer<Model, ModelEvent> observer) {
+        this(observer, Dictionary.getDefault());
+    }
+
     /**
      * Creates a new model with an observer
-     * @param observer the observer that will monitor the Model
+     * @param observer the observer that will monitor the Model, notified on the thread changing the model
+     * @param dictionary the dictionary to play with
      */
-    public Model(Observer<Model, String> observer) {
-        this.observer = observer;
-        this.secretWord = initializeSecretWord();
-        this.gameState = GameState.STANDARD;
+    public Model(Observer<Model, ModelEvent> observer, Dictionary dictionary) {
+        this(observer, dictionary, null);
+    }
 
-        char[] alph = "QWERTYUIOPASDFGHJKLZXCVBNM".toCharArray();
-        for(char c : alph) {
-            letterStatuses.put(String.valueOf(c), Colors.WHITE);
+    /**
+     * Creates a new model with an observer and a known secret word, such as for simulating games
+     * @param observer the observer that will monitor the Model, notified on the thread changing the
+     *                 model, may be null
+     * @param dictionary the dictionary to play with
+     * @param secretWord the secret word, or null to pick a random answer
+     */
+    public Model(Observer<Model, ModelEvent> observer, Dictionary dictionary, String secretWord) {
+        if(observer != null) {
+            subscribe(observer, Runnable::run);
+        }
+        this.length = dictionary.getLength();
+        this.validWords = dictionary.getGuesses();
+        this.board = new Cell[MAX_GUESSES][this.length];
+        this.lastColors = new Colors[this.length];
+        this.guessLetters = new int[this.length];
+        this.secretWord = secretWord == null ? initializeSecretWord(dictionary) : secretWord.toUpperCase();
+        this.codec = Pattern.forLength(this.length);
+        if(this.secretWord.length() != this.length || WordList.encode(this.secretWord) < 0) {
+            throw new IllegalArgumentException("Invalid secret word " + secretWord);
         }
+        this.secretId = WordList.encode(this.secretWord);
+        this.gameState = GameState.STANDARD;
+
+        Arrays.fill(this.letterStatuses, Colors.WHITE);
         for(int i = 0; i < MAX_GUESSES; i++) {
-            for(int j = 0; j < MAX_LENGTH; j++) {
+            for(int j = 0; j < this.length; j++) {
                 this.board[i][j] = new Cell<>(null, Colors.WHITE);
             }
         }
@@ -110,10 +171,12 @@ public class Model {
      */
     public void addCharacter(String c) {
         if(this.gameState == GameState.WIN || this.gameState == GameState.LOSE) return;
-        if(this.currentCharacter == MAX_LENGTH) return;
+        if(this.currentCharacter == this.length) return;
         board[this.currentGuess][this.currentCharacter].setValue(c);
+        if(isObserved()) {
+            publish(new ModelEvent.CellChanged(this.currentGuess, this.currentCharacter, c));
+        }
         this.currentCharacter++;
-        updateObserver("Added Character");
     }
 
     /**
@@ -124,8 +187,10 @@ public class Model {
         if(this.gameState == GameState.WIN || this.gameState == GameState.LOSE) return;
         this.currentCharacter--;
         board[this.currentGuess][this.currentCharacter].setValue(null);
-        this.gameState = GameState.STANDARD;
-        updateObserver("Removed Character");
+        if(isObserved()) {
+            publish(new ModelEvent.CellChanged(this.currentGuess, this.currentCharacter, null));
+        }
+        setGameState(GameState.STANDARD);
     }
 
     /**
@@ -135,111 +200,83 @@ public class Model {
      * GRAY = Wrong letter wrong position
      */
     public void guessWord() {
-        StringBuilder guess = new StringBuilder();
-        for(Cell<String> item : this.board[this.currentGuess]) {
-            guess.append(item.getValue());
-        }
         if(this.gameState == GameState.WIN || this.gameState == GameState.LOSE) return;
-        if(!VALID_WORDS.contains(guess.toString())) {
-            this.gameState = GameState.INVALID;
-            updateObserver("Invalid");
-            return;
-        }
-        this.lastGuessed = guess.toString();
-        Colors[] colors = {Colors.GRAY, Colors.GRAY, Colors.GRAY, Colors.GRAY, Colors.GRAY};
-        char[] solutionArray = this.secretWord.toCharArray();
-        char[] guessArray = guess.toString().toCharArray();
-        Map<Character, Integer> letterCounts = getLetterCounts(this.secretWord);
-        for(int i = 0; i < MAX_LENGTH; i++) {
-            char letter = guessArray[i];
-            if(solutionArray[i] == letter) {
-                colors[i] = Colors.GREEN;
-                int value = letterCounts.get(letter) - 1;
-                letterCounts.put(letter, value);
+        long id = 0;
+        for(int i = 0; i < this.length; i++) {
+            String value = this.board[this.currentGuess][i].getValue();
+            int letter = value == null || value.isEmpty() ? -1 : Character.toUpperCase(value.charAt(0)) - 'A';
+            if(letter < 0 || letter >= 26) {
+                id = -1;
+                break;
             }
+            this.guessLetters[i] = letter;
+            id = WordList.appendLetter(id, letter);
         }
-        for(int i = 0; i < 5; i++) {
-            char letter = guessArray[i];
-            if(colors[i] != Colors.YELLOW) {
-                if(this.secretWord.contains(String.valueOf(letter))) {
-                    if(letterCounts.get(letter) > 0) {
-                        colors[i] = Colors.YELLOW;
-                        int value = letterCounts.get(letter) - 1;
-                        letterCounts.put(letter, value);
-
-                    }
+        int index = id < 0 ? -1 : this.validWords.indexOf(id);
+        if(index < 0) {
+            if(isObserved()) {
+                StringBuilder attempt = new StringBuilder();
+                for(int i = 0; i < this.length; i++) {
+                    String value = this.board[this.currentGuess][i].getValue();
+                    if(value != null) attempt.append(value);
                 }
+                publish(new ModelEvent.InvalidGuess(this.currentGuess, attempt.toString()));
             }
+            setGameState(GameState.INVALID);
+            return;
         }
-        this.lastColors = colors;
-        for(int i = 0; i < MAX_LENGTH; i++) {
-            this.board[this.currentGuess][i].setStatus(colors[i]);
-            Colors curr = this.letterStatuses.get(this.board[currentGuess][i].getValue());
-            if(curr == Colors.GREEN) continue;
-            if(curr == Colors.YELLOW && colors[i] == Colors.GRAY) continue;
-            this.letterStatuses.put(this.board[this.currentGuess][i].getValue(), colors[i]);
+        this.lastGuessed = this.validWords.word(index);
+        this.lastPattern = score(id, this.lastColors);
+        boolean observed = isObserved();
+        if(observed) {
+            publish(new ModelEvent.GuessScored(this.currentGuess, this.lastGuessed, this.lastPattern));
+        }
+        for(int i = 0; i < this.length; i++) {
+            Colors color = this.lastColors[i];
+            this.board[this.currentGuess][i].setStatus(color);
+            int letter = this.guessLetters[i];
+            Colors curr = this.letterStatuses[letter];
+            if(curr == color || curr == Colors.GREEN) continue;
+            if(curr == Colors.YELLOW && color == Colors.GRAY) continue;
+            this.letterStatuses[letter] = color;
+            if(observed) {
+                publish(new ModelEvent.LetterChanged((char) ('A' + letter), color));
+            }
         }
 
         this.currentGuess++;
         this.currentCharacter = 0;
-        if(guess.toString().equals(this.secretWord)) {
-            this.gameState = GameState.WIN;
+        if(this.lastGuessed.equals(this.secretWord)) {
+            setGameState(GameState.WIN);
         } else if(this.currentGuess == MAX_GUESSES){
-            this.gameState = GameState.LOSE;
+            setGameState(GameState.LOSE);
         }
-        updateObserver("Guessed");
-    }
-
-    /**
-     * Gets a map of each letter in the word and how many times it occurs
-     * @param word the word to get the letter counts from
-     * @return a map containing each letter in the word and its occurrences
-     */
-    private static Map<Character, Integer> getLetterCounts(String word) {
-        Map<Character, Integer> counts = new HashMap<>();
-        for(char c : word.toCharArray()) {
-            if(counts.containsKey(c)) {
-                int count = counts.get(c);
-                count++;
-                counts.put(c, count);
-            } else {
-                counts.put(c, 1);
-            }
+        if(observed && (this.gameState == GameState.WIN || this.gameState == GameState.LOSE)) {
+            publish(new ModelEvent.GameOver(this.gameState == GameState.WIN, this.secretWord, this.currentGuess));
         }
-        return counts;
     }
 
-
     /**
-     * Reads a file of words and puts it into a list
-     * @param path path of the file
-     * @return a list of the words in the file
+     * Scores a guess against the secret word without allocating
+     * @param guess the packed id of the guess
+     * @param colors filled with the color of each letter
+     * @return the result encoded as a {@link Pattern}
      */
-    private static List<String> initializeFile(String path) {
-        List<String> list = new ArrayList<>();
-        try(BufferedReader br = new BufferedReader(new FileReader(path))) {
-            String line = br.readLine();
-            while(line != null) {
-                list.add(line.strip().toUpperCase());
-                line = br.readLine();
-            }
-        } catch (FileNotFoundException e) {
-            System.err.println("Valid Words File not Found");
-            System.exit(-2);
-        } catch (IOException e) {
-            throw new RuntimeException(e);
-        }
-        return list;
+    private int score(long guess, Colors[] colors) {
+        int pattern = this.codec.score(guess, this.secretId);
+        Colors.decode(this.codec, pattern, colors);
+        return pattern;
     }
 
     /**
      * Gets the secret word from a list of possible secret words
+     * @param dictionary the dictionary containing the possible answers
      * @return the secret word chosen
      */
-    private String initializeSecretWord() {
-        List<String> validAnswers = initializeFile(VALID_ANSWERS_PATH);
-        int ind = this.rng.nextInt(validAnswers.size())-1;
-        return validAnswers.get(ind);
+    private String initializeSecretWord(Dictionary dictionary) {
+        WordList validAnswers = dictionary.getAnswers();
+        int ind = this.rng.nextInt(validAnswers.size());
+        return validAnswers.word(ind);
     }
 
     /**
@@ -258,7 +295,17 @@ public class Model {
      * @return the status of that letter
      */
     public Colors getLetterStatus(String s) {
-        return letterStatuses.get(s);
+        int letter = Character.toUpperCase(s.charAt(0)) - 'A';
+        if(letter < 0 || letter >= 26) return null;
+        return this.letterStatuses[letter];
+    }
+
+    /**
+     * Gets the length of the words being guessed
+     * @return the word length
+     */
+    public int getLength() {
+        return this.length;
     }
 
     /**
@@ -278,7 +325,8 @@ public class Model {
     }
 
     /**
-     * Gets an array representing the results of the last guess
+     * Gets an array representing the results of the last guess, the array is reused for
+     * every guess
      * @return an array of Colors representing the results of the last guess
      */
     public Colors[] getLastColors() {
@@ -286,11 +334,67 @@ public class Model {
     }
 
     /**
-     * Updates each the observer of this model
-     * @param message the message to send to the observer
+     * Gets the results of the last guess encoded as a {@link Pattern}
+     * @return the results of the last guess, or -1 if nothing has been guessed
+     */
+    public int getLastPattern() {
+        return this.lastPattern;
+    }
+
+    /**
+     * Gets the secret word
+     * @return the secret word
+     */
+    public String getSecretWord() {
+        return this.secretWord;
+    }
+
+    /**
+     * Changes the state of the game, telling the subscribers if it is different
+     * @param state the new state
+     */
+    private void setGameState(GameState state) {
+        if(this.gameState == state) return;
+        this.gameState = state;
+        if(isObserved()) {
+            publish(new ModelEvent.StateChanged(state));
+        }
+    }
+
+    /**
+     * Subscribes to the changes of this model
+     * @param observer the observer to notify of every event, in order if the executor runs tasks in order
+     * @param executor runs the observer for each event, such as Runnable::run for the thread changing
+     *                 the model, Platform::runLater or a single thread executor
      */
-    private void updateObserver(String message) {
-        this.observer.update(this, message);
+    public void subscribe(Observer<Model, ModelEvent> observer, Executor executor) {
+        this.subscribers.add(new Subscriber(observer, executor));
+    }
+
+    /**
+     * Stops notifying an observer
+     * @param observer the observer to remove
+     */
+    public void unsubscribe(Observer<Model, ModelEvent> observer) {
+        this.subscribers.removeIf(subscriber -> subscriber.observer() == observer);
+    }
+
+    /**
+     * Checks whether anything is subscribed, so events are only created when they will be used
+     * @return true if there is a subscriber
+     */
+    private boolean isObserved() {
+        return !this.subscribers.isEmpty();
+    }
+
+    /**
+     * Sends an event to every subscriber on its executor
+     * @param event the event to send
+     */
+    private void publish(ModelEvent event) {
+        for(Subscriber subscriber : this.subscribers) {
+            subscriber.executor().execute(() -> subscriber.observer().update(this, event));
+        }
     }
 
     /**
@@ -0,0 +1,63 @@
+package me.sean.wordlesolver.model;
+
+import me.sean.wordlesolver.dictionary.Pattern;
+
+/**
+ * A change in the game sent by the {@link Model} to its subscribers. Every event is
+ * immutable and carries everything needed to react to it, so subscribers never have to
+ * read the model back and can handle events on any thread
+ *
+ * @author Sean Droll
+ */
+public sealed interface ModelEvent {
+
+    /**
+     * A letter was typed into or removed from the board
+     * @param row the guess the cell belongs to, starting at 0
+     * @param column the position of the cell in the guess, starting at 0
+     * @param value the letter now in the cell, or null if it was cleared
+     */
+    record CellChanged(int row, int column, String value) implements ModelEvent {
+    }
+
+    /**
+     * A valid word was guessed and scored against the secret word
+     * @param row the guess that was scored, starting at 0
+     * @param word the word that was guessed
+     * @param pattern the result of the guess encoded as a {@link Pattern}
+     */
+    record GuessScored(int row, String word, int pattern) implements ModelEvent {
+    }
+
+    /**
+     * What is known about a letter changed after a guess
+     * @param letter the letter, 'A' to 'Z'
+     * @param status the new status of the letter
+     */
+    record LetterChanged(char letter, Model.Colors status) implements ModelEvent {
+    }
+
+    /**
+     * A word that can not be guessed was entered
+     * @param row the guess the word was entered in, starting at 0
+     * @param attempt the letters that were entered
+     */
+    record InvalidGuess(int row, String attempt) implements ModelEvent {
+    }
+
+    /**
+     * The state of the game changed
+     * @param state the new state
+     */
+    record StateChanged(Model.GameState state) implements ModelEvent {
+    }
+
+    /**
+     * The game ended
+     * @param won true if the secret word was guessed
+     * @param secretWord the secret word
+     * @param guesses the number of guesses made
+     */
+    record GameOver(boolean won, String secretWord, int guesses) implements ModelEvent {
+    }
+}
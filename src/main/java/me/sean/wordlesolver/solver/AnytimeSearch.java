@@ -0,0 +1,272 @@
+package me.sean.wordlesolver.solver;
+
+import me.sean.wordlesolver.dictionary.WordList;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Ranks guesses in stages of increasing quality until a deadline, always keeping the best
+ * ranking found so far. Guesses that could be the answer are scored first so even a search
+ * that runs out of time straight away suggests something sensible
+ *
+ * @author Sean Droll
+ */
+class AnytimeSearch {
+    private static final int CHUNK = 256;
+    private static final int LOOKAHEAD_WIDTH = 10;
+    private static final int SECOND_GUESSES = 100;
+    private final DataMatrix matrix;
+    private final double[] weights;
+    private final int threads;
+    private final long deadline;
+    private volatile boolean complete = true;
+
+    /**
+     * Creates a new search
+     * @param matrix the datamatrix containing the results
+     * @param weights the weight of every answer by column
+     * @param threads the number of threads to score with
+     * @param deadline when the search must stop, from System.nanoTime()
+     */
+    AnytimeSearch(DataMatrix matrix, double[] weights, int threads, long deadline) {
+        this.matrix = matrix;
+        this.weights = weights;
+        this.threads = threads;
+        this.deadline = deadline;
+    }
+
+    /**
+     * Ranks the guesses against a set of candidates up to a quality tier or until the deadline
+     * @param candidates the columns of the remaining answers
+     * @param tier the most refined ranking wanted
+     * @param seed a complete entropy ranking to start from, or null to compute it
+     * @return the best ranking found, best first
+     */
+    List<WordData> search(int[] candidates, QualityTier tier, List<WordData> seed) {
+        List<WordData> ranking = seed != null ? seed : entropy(candidates);
+        if(tier == QualityTier.ENTROPY) return ranking;
+        if(outOfTime()) return ranking;
+        ranking = candidateBias(ranking, candidates);
+        if(tier == QualityTier.CANDIDATE_BIAS) return ranking;
+        return lookahead(ranking, candidates);
+    }
+
+    /**
+     * Checks whether every stage asked for was finished before the deadline
+     * @return false if the search stopped early
+     */
+    boolean isComplete() {
+        return complete;
+    }
+
+    /**
+     * Checks the deadline, remembering that the search was cut short if it has passed
+     * @return true if there is no time left
+     */
+    private boolean outOfTime() {
+        if(System.nanoTime() - this.deadline >= 0) {
+            this.complete = false;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Scores guesses by their average information in chunks on several threads, guesses that
+     * could be the answer first. Chunks not started by the deadline are left out, except the first
+     * @param candidates the columns of the remaining answers
+     * @return the guesses that were scored, best first
+     */
+    private List<WordData> entropy(int[] candidates) {
+        WordList guesses = this.matrix.getGuesses();
+        WordList answers = this.matrix.getAnswers();
+        int[] order = new int[guesses.size()];
+        boolean[] first = new boolean[guesses.size()];
+        int size = 0;
+        for(int col : candidates) {
+            int row = guesses.indexOf(answers.get(col));
+            if(row >= 0 && !first[row]) {
+                first[row] = true;
+                order[size++] = row;
+            }
+        }
+        for(int row = 0; row < guesses.size(); row++) {
+            if(!first[row]) {
+                order[size++] = row;
+            }
+        }
+        double[] scores = new double[order.length];
+        Arrays.fill(scores, Double.NaN);
+        double total = CalculateInformation.total(candidates, this.weights);
+        int chunks = (order.length + CHUNK - 1) / CHUNK;
+        AtomicInteger next = new AtomicInteger();
+        List<Thread> workers = new ArrayList<>();
+        for(int i = 0; i < this.threads; i++) {
+            Thread worker = new Thread(() -> {
+                double[] buckets = new double[this.matrix.getPatternCount()];
+                int chunk = next.getAndIncrement();
+                while(chunk < chunks && (chunk == 0 || !outOfTime())) {
+                    for(int i1 = chunk * CHUNK; i1 < Math.min(order.length, (chunk + 1) * CHUNK); i1++) {
+                        CalculateInformation.histogram(this.matrix, order[i1], candidates, this.weights, buckets);
+                        scores[order[i1]] = ScoringMode.ENTROPY.score(buckets, total);
+                        Arrays.fill(buckets, 0);
+                    }
+                    chunk = next.getAndIncrement();
+                }
+            });
+            worker.start();
+            workers.add(worker);
+        }
+        for(Thread worker : workers) {
+            try {
+                worker.join();
+            } catch (InterruptedException e) {
+                throw new RuntimeException(e);
+            }
+        }
+        List<WordData> data = new ArrayList<>();
+        for(int row = 0; row < scores.length; row++) {
+            if(!Double.isNaN(scores[row])) {
+                data.add(new WordData(guesses.word(row), scores[row]));
+            }
+        }
+        data.sort(Solver.order(ScoringMode.ENTROPY, this.matrix, candidates));
+        return data;
+    }
+
+    /**
+     * Adds to each guess that could be the answer its chance of being the answer times the
+     * information still needed to find the answer
+     * @param ranking the entropy ranking
+     * @param candidates the columns of the remaining answers
+     * @return the biased ranking, best first
+     */
+    private List<WordData> candidateBias(List<WordData> ranking, int[] candidates) {
+        double total = CalculateInformation.total(candidates, this.weights);
+        double needed = entropy(candidates, total);
+        List<WordData> biased = new ArrayList<>(ranking.size());
+        for(WordData word : ranking) {
+            int col = this.matrix.getAnswers().indexOf(word.getWord());
+            double bonus = col >= 0 && Arrays.binarySearch(candidates, col) >= 0 ? this.weights[col] / total * needed : 0;
+            biased.add(bonus == 0 ? word : new WordData(word.getWord(), word.getData() + bonus));
+        }
+        biased.sort(Solver.order(ScoringMode.ENTROPY, this.matrix, candidates));
+        return biased;
+    }
+
+    /**
+     * Rescores the best guesses in parallel by the information expected from them plus the
+     * best second guess after each of their results, until the deadline. The longest run of
+     * rescored guesses from the top is reordered among itself and stays ahead of the rest
+     * @param ranking the biased ranking
+     * @param candidates the columns of the remaining answers
+     * @return the ranking with its best guesses rescored, best first
+     */
+    private List<WordData> lookahead(List<WordData> ranking, int[] candidates) {
+        int width = Math.min(LOOKAHEAD_WIDTH, ranking.size());
+        int[] pool = new int[Math.min(SECOND_GUESSES, ranking.size())];
+        for(int i = 0; i < pool.length; i++) {
+            pool[i] = this.matrix.indexOfGuess(ranking.get(i).getWord());
+        }
+        double[] next = new double[width];
+        Arrays.fill(next, Double.NaN);
+        AtomicInteger position = new AtomicInteger();
+        List<Thread> workers = new ArrayList<>();
+        for(int i = 0; i < Math.min(this.threads, width); i++) {
+            Thread worker = new Thread(() -> {
+                int rank = position.getAndIncrement();
+                while(rank < width && !outOfTime()) {
+                    next[rank] = secondGuesses(this.matrix.indexOfGuess(ranking.get(rank).getWord()), candidates, pool);
+                    rank = position.getAndIncrement();
+                }
+            });
+            worker.start();
+            workers.add(worker);
+        }
+        for(Thread worker : workers) {
+            try {
+                worker.join();
+            } catch (InterruptedException e) {
+                throw new RuntimeException(e);
+            }
+        }
+        List<WordData> refined = new ArrayList<>(ranking);
+        int done = 0;
+        while(done < width && !Double.isNaN(next[done])) {
+            WordData word = ranking.get(done);
+            refined.set(done, new WordData(word.getWord(), word.getData() + next[done]));
+            done++;
+        }
+        if(done < width) {
+            this.complete = false;
+        }
+        refined.subList(0, done).sort(Solver.order(ScoringMode.ENTROPY, this.matrix, candidates));
+        return refined;
+    }
+
+    /**
+     * Finds the information expected from the best second guess after each result of a guess
+     * @param row the row of the first guess
+     * @param candidates the columns of the remaining answers
+     * @param pool the rows of the second guesses to try, besides the answers left after each result
+     * @return the expected information in bits, or NaN if the deadline passed first
+     */
+    private double secondGuesses(int row, int[] candidates, int[] pool) {
+        int[][] partitions = CalculateInformation.partition(this.matrix, row, candidates);
+        double total = CalculateInformation.total(candidates, this.weights);
+        double[] buckets = new double[this.matrix.getPatternCount()];
+        double expected = 0;
+        for(int[] partition : partitions) {
+            if(partition.length < 2) continue;
+            if(outOfTime()) return Double.NaN;
+            double weight = CalculateInformation.total(partition, this.weights);
+            double best = 0;
+            for(int second : pool) {
+                best = Math.max(best, score(second, partition, weight, buckets));
+            }
+            for(int col : partition) {
+                int second = this.matrix.getGuesses().indexOf(this.matrix.getAnswers().get(col));
+                if(second >= 0) {
+                    best = Math.max(best, score(second, partition, weight, buckets));
+                }
+            }
+            expected += weight / total * best;
+        }
+        return expected;
+    }
+
+    /**
+     * Scores a guess by its average information over some candidates
+     * @param row the row of the guess
+     * @param candidates the columns of the candidates
+     * @param total the total weight of the candidates
+     * @param buckets a histogram to use, left all zeros
+     * @return the average information in bits
+     */
+    private double score(int row, int[] candidates, double total, double[] buckets) {
+        CalculateInformation.histogram(this.matrix, row, candidates, this.weights, buckets);
+        double score = ScoringMode.ENTROPY.score(buckets, total);
+        Arrays.fill(buckets, 0);
+        return score;
+    }
+
+    /**
+     * Gets the information needed to tell the candidates apart
+     * @param candidates the columns of the candidates
+     * @param total the total weight of the candidates
+     * @return the entropy of the candidates in bits
+     */
+    private double entropy(int[] candidates, double total) {
+        double entropy = 0;
+        for(int col : candidates) {
+            double prob = this.weights[col] / total;
+            if(prob > 0) {
+                entropy -= prob * Math.log(prob);
+            }
+        }
+        return entropy / CalculateInformation.LN_2;
+    }
+}
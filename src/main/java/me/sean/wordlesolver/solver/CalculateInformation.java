@@ -1,83 +1,123 @@
 package me.sean.wordlesolver.solver;
 
+import me.sean.wordlesolver.dictionary.WordList;
+
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 /**
- * Generates a list of WordData that contains the average information to gain if that
- * word was guessed
+ * Generates a list of WordData that contains the score of each word in a chunk of guesses,
+ * by default the average information to gain if that word was guessed
  *
  * @author Sean Droll
  */
 public class CalculateInformation extends Thread {
+    public static final double LN_2 = Math.log(2);
     private final DataMatrix matrix;
-    private final List<String> validWords;
-    private final List<String> chunk;
+    private final int[] candidates;
+    private final double[] weights;
+    private final int start;
+    private final int end;
+    private final ScoringMode mode;
     private List<WordData> data;
 
     /**
-     * Creates a new instance of TopAnswers
+     * Creates a new instance of CalculateInformation
      * @param matrix the datamatrix to use to compute the best possible word
-     * @param validWords a list of the valid words in the game
-     * @param chunk the chunk of words to computer
+     * @param candidates the columns of the answers that are still possible
+     * @param weights the weight of every answer by column
+     * @param start the first row of the chunk of guesses to compute
+     * @param end the row after the last row of the chunk
+     * @param mode how to score each guess
      */
-    public CalculateInformation(DataMatrix matrix, List<String> validWords, List<String> chunk) {
+    public CalculateInformation(DataMatrix matrix, int[] candidates, double[] weights, int start, int end, ScoringMode mode) {
         this.matrix = matrix;
-        this.validWords = new ArrayList<>(validWords);
-        this.chunk = new ArrayList<>(chunk);
+        this.candidates = candidates;
+        this.weights = weights;
+        this.start = start;
+        this.end = end;
+        this.mode = mode;
     }
 
     /**
-     * Computes the possible words that could be the secret word given the results of a guess
-     * @param data current possible words
-     * @param word the guess
-     * @param results the results of that guess
-     * @return the remaining valid words
+     * Adds up the weight of the candidates falling into each possible result of a guess in a
+     * single pass
+     * @param matrix the datamatrix containing the results
+     * @param row the row of the guess
+     * @param candidates the columns of the remaining answers
+     * @param weights the weight of every answer by column
+     * @param buckets the histogram to fill, must be all zeros
      */
-    private List<String> updateList(List<String> data, String word, int results) {
-        List<String> possible = this.matrix.getIndices(word, results);
-        List<String> newList = new ArrayList<>(data);
-
-        for (String possibility : data) {
-            if (!possible.contains(possibility)) {
-                newList.remove(possibility);
+    static void histogram(DataMatrix matrix, int row, int[] candidates, double[] weights, double[] buckets) {
+        for(int col : candidates) {
+            buckets[matrix.get(row, col)] += weights[col];
+        }
+    }
 
+    /**
+     * Splits the candidates into groups that give the same result for a guess
+     * @param matrix the datamatrix containing the results
+     * @param row the row of the guess
+     * @param candidates the columns of the remaining answers
+     * @return each non empty group of candidates, in order of result
+     */
+    static int[][] partition(DataMatrix matrix, int row, int[] candidates) {
+        int[] sizes = new int[matrix.getPatternCount()];
+        for(int col : candidates) {
+            sizes[matrix.get(row, col)]++;
+        }
+        int[][] groups = new int[sizes.length][];
+        int nonEmpty = 0;
+        for(int i = 0; i < sizes.length; i++) {
+            if(sizes[i] != 0) {
+                groups[i] = new int[sizes[i]];
+                sizes[i] = 0;
+                nonEmpty++;
+            }
+        }
+        for(int col : candidates) {
+            int pattern = matrix.get(row, col);
+            groups[pattern][sizes[pattern]++] = col;
+        }
+        int[][] buckets = new int[nonEmpty][];
+        int j = 0;
+        for(int[] group : groups) {
+            if(group != null) {
+                buckets[j++] = group;
             }
         }
-        return newList;
+        return buckets;
     }
 
     /**
-     * Computes the log2 of a value
-     * @param x the value
-     * @return the log2 of the value unless it is less than 0, then it will return 0
+     * Adds up the weight of the candidates
+     * @param candidates the columns of the remaining answers
+     * @param weights the weight of every answer by column
+     * @return the total weight
      */
-    private double safeLogTwo(double x) {
-        if(x > 0) {
-            return Math.log10(x)/Math.log10(2);
+    static double total(int[] candidates, double[] weights) {
+        double total = 0;
+        for(int col : candidates) {
+            total += weights[col];
         }
-        return 0;
+        return total;
     }
 
     /**
-     * Generates a list of WordData objects
-     * @return a list of WordData objects that contains the word and the
-     * average information that would be hoped to gain if that word was guessed
+     * Generates a list of WordData objects, scoring each guess from the weighted histogram
+     * of its results over the remaining candidates
+     * @return a list of WordData objects that contains the word and its score
      */
     private List<WordData> calculateAverageInformation() {
         List<WordData> wordData = new ArrayList<>();
-        for(String word : this.chunk) {
-            double avgInfo = 0;
-            for(int i = 0; i < 363; i++) {
-                List<String> newList = updateList(this.validWords, word, i);
-                double prob = (double)newList.size()/(double)this.validWords.size();
-
-                if(prob != 0) {
-                    double info = safeLogTwo(1/prob);
-                    avgInfo += prob*info;
-                }
-            }
-            wordData.add(new WordData(word, avgInfo));
+        WordList guesses = this.matrix.getGuesses();
+        double[] buckets = new double[this.matrix.getPatternCount()];
+        double total = total(this.candidates, this.weights);
+        for(int row = this.start; row < this.end; row++) {
+            histogram(this.matrix, row, this.candidates, this.weights, buckets);
+            wordData.add(new WordData(guesses.word(row), this.mode.score(buckets, total)));
+            Arrays.fill(buckets, 0);
         }
         return wordData;
     }
@@ -0,0 +1,126 @@
+package me.sean.wordlesolver.solver;
+
+import java.util.Arrays;
+
+/**
+ * An immutable set of answer columns stored as a bitset. Filtering never changes a set, it
+ * returns a new one, so sets can be shared freely between snapshots of a game
+ *
+ * @author Sean Droll
+ */
+public final class CandidateSet {
+    private final long[] bits;
+    private final int[] columns;
+    private final int hash;
+
+    /**
+     * Creates a new set from its bits and the columns they contain
+     * @param bits one bit per answer column
+     * @param columns the columns of the set bits in ascending order
+     */
+    private CandidateSet(long[] bits, int[] columns) {
+        this.bits = bits;
+        this.columns = columns;
+        this.hash = Arrays.hashCode(bits);
+    }
+
+    /**
+     * Creates a set containing every answer
+     * @param answers the number of answers
+     * @return the full set
+     */
+    public static CandidateSet all(int answers) {
+        long[] bits = new long[(answers + 63) >>> 6];
+        int[] columns = new int[answers];
+        for(int i = 0; i < answers; i++) {
+            bits[i >>> 6] |= 1L << i;
+            columns[i] = i;
+        }
+        return new CandidateSet(bits, columns);
+    }
+
+    /**
+     * Creates a set from a list of columns
+     * @param answers the number of answers
+     * @param columns the columns in the set, in ascending order
+     * @return the set
+     */
+    static CandidateSet of(int answers, int[] columns) {
+        long[] bits = new long[(answers + 63) >>> 6];
+        for(int col : columns) {
+            bits[col >>> 6] |= 1L << col;
+        }
+        return new CandidateSet(bits, columns);
+    }
+
+    /**
+     * Keeps only the answers that give a result for a guess. When fewer answers give the result
+     * than are in the set, only those answers from the partition index are checked against the
+     * set, otherwise every answer in the set is checked against the matrix
+     * @param matrix the datamatrix containing the results
+     * @param row the row of the guess
+     * @param pattern the result of the guess
+     * @return a new set with the remaining answers
+     */
+    public CandidateSet filter(DataMatrix matrix, int row, int pattern) {
+        long[] bits = new long[this.bits.length];
+        int size = 0;
+        PartitionIndex index = matrix.getPartitions();
+        int partition = index.size(row, pattern);
+        int[] remaining = new int[Math.min(partition, this.columns.length)];
+        if(partition < this.columns.length) {
+            for(int i = 0; i < partition; i++) {
+                int col = index.answer(row, pattern, i);
+                if(contains(col)) {
+                    bits[col >>> 6] |= 1L << col;
+                    remaining[size++] = col;
+                }
+            }
+        } else {
+            for(int col : this.columns) {
+                if(matrix.get(row, col) == pattern) {
+                    bits[col >>> 6] |= 1L << col;
+                    remaining[size++] = col;
+                }
+            }
+        }
+        return new CandidateSet(bits, Arrays.copyOf(remaining, size));
+    }
+
+    /**
+     * Checks whether an answer is in the set
+     * @param col the column of the answer
+     * @return true if the answer is in the set
+     */
+    public boolean contains(int col) {
+        return col >= 0 && (col >>> 6) < this.bits.length && (this.bits[col >>> 6] & (1L << col)) != 0;
+    }
+
+    /**
+     * Gets the columns in the set in ascending order. The array is shared and must not be modified
+     * @return the columns in the set
+     */
+    int[] columns() {
+        return columns;
+    }
+
+    /**
+     * Gets the number of answers in the set
+     * @return the size of the set
+     */
+    public int size() {
+        return this.columns.length;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if(this == o) return true;
+        if(!(o instanceof CandidateSet other)) return false;
+        return this.hash == other.hash && Arrays.equals(this.bits, other.bits);
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+}
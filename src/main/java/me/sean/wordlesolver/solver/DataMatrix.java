@@ -2,42 +2,206 @@ package me.sean.wordlesolver.solver;
 
 import com.google.gson.stream.JsonReader;
 import com.google.gson.stream.JsonToken;
+import me.sean.wordlesolver.dictionary.Dictionary;
+import me.sean.wordlesolver.dictionary.DictionaryPack;
+import me.sean.wordlesolver.dictionary.Pattern;
+import me.sean.wordlesolver.dictionary.WordList;
 
-import java.io.FileReader;
 import java.io.IOException;
+import java.io.StringReader;
+import java.nio.ByteBuffer;
+import java.nio.ShortBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
+import java.util.stream.IntStream;
+import java.util.zip.CRC32;
 
 /**
- * A matrix that contains an integer value described by two strings
+ * A matrix that contains the result of every guess against every answer, rows are guesses
+ * and columns are answers. Results are stored in a single byte when every pattern fits,
+ * otherwise in two bytes. A pack's matrix may be json or the binary format of {@link #write(Path)}
  *
  * @author Sean Droll
  */
 public class DataMatrix {
-    Map<String, Map<String, Integer>> matrix;
+    private static final int MAGIC = 0x57504D58;
+    private static final int HEADER_SIZE = 20;
+    private final DictionaryPack pack;
+    private final WordList guesses;
+    private final WordList answers;
+    private final int length;
+    private final int patternCount;
+    private final int width;
+    private final int checksum;
+    private final ByteBuffer cells;
+    private final Path file;
+    private volatile PartitionIndex partitions;
 
     /**
-     * Creates a new DataMatrix from data stored in a JSon File
-     * @param path the path of the json file to get the data from
+     * Creates a new DataMatrix for a dictionary, reading the pack's prebuilt matrix
+     * if it has one and computing it otherwise
+     * @param dictionary the dictionary to build the matrix for
      */
-    public DataMatrix(String path) {
-        this.matrix = new HashMap<>();
-        try(JsonReader reader = new JsonReader(new FileReader(path))) {
+    public DataMatrix(Dictionary dictionary) {
+        this(dictionary, prebuilt(dictionary.getPack()), dictionary.getPack().locate(DictionaryPack.Resource.MATRIX),
+                true);
+    }
+
+    /**
+     * Creates a new DataMatrix for a dictionary by memory mapping a matrix written with
+     * {@link #write(Path)}, so several processes can share the same copy
+     * @param dictionary the dictionary the matrix was built for
+     * @param file the binary matrix
+     */
+    public DataMatrix(Dictionary dictionary, Path file) {
+        this(dictionary, map(file), file, false);
+    }
+
+    /**
+     * Creates a new DataMatrix for a dictionary
+     * @param dictionary the dictionary to build the matrix for
+     * @param matrix the contents of a binary or json matrix, or null to compute it
+     * @param file the file the matrix was mapped from, or null if it was not mapped
+     * @param rebuild true to compute a binary matrix again if it was built for other words, false to reject it
+     */
+    private DataMatrix(Dictionary dictionary, ByteBuffer matrix, Path file, boolean rebuild) {
+        DictionaryPack pack = dictionary.getPack();
+        this.pack = pack;
+        this.guesses = dictionary.getGuesses();
+        this.answers = dictionary.getAnswers();
+        this.length = dictionary.getLength();
+        this.patternCount = pack.getPatternCount();
+        this.width = this.patternCount <= 256 ? 1 : 2;
+        this.checksum = (int) wordChecksum(this.guesses, this.answers).getValue();
+        boolean binary = matrix != null && isBinary(matrix);
+        ByteBuffer cells = binary ? readHeader(matrix) : null;
+        this.file = cells != null ? file : null;
+        if(cells != null) {
+            this.cells = cells;
+        } else {
+            this.cells = ByteBuffer.allocate(this.guesses.size() * this.answers.size() * this.width);
+            if(binary && !rebuild) {
+                throw new IllegalArgumentException("Binary matrix does not match the dictionary");
+            } else if(binary) {
+                System.err.println("The matrix of pack " + pack.getName() + " was built for other words, computing it again");
+                compute();
+            } else if(matrix != null) {
+                readJson(matrix);
+            } else {
+                compute();
+            }
+        }
+    }
+
+    /**
+     * Starts a checksum of the words a matrix is built from, shared by every file derived from the matrix
+     * @param guesses the words that can be guessed
+     * @param answers the words that can be the answer
+     * @return the CRC32 of the word length, the guesses and the answers, which may be updated further
+     */
+    static CRC32 wordChecksum(WordList guesses, WordList answers) {
+        ByteBuffer data = ByteBuffer.allocate(12 + (guesses.size() + answers.size()) * Long.BYTES);
+        data.putInt(guesses.getLength()).putInt(guesses.size()).putInt(answers.size());
+        for(int i = 0; i < guesses.size(); i++) {
+            data.putLong(guesses.get(i));
+        }
+        for(int i = 0; i < answers.size(); i++) {
+            data.putLong(answers.get(i));
+        }
+        CRC32 crc = new CRC32();
+        crc.update(data.flip());
+        return crc;
+    }
+
+    /**
+     * Reads the pack's matrix
+     * @param pack the pack
+     * @return the matrix in either format, or null if the pack has no matrix
+     */
+    private static ByteBuffer prebuilt(DictionaryPack pack) {
+        if(!pack.has(DictionaryPack.Resource.MATRIX)) return null;
+        return pack.readBytes(DictionaryPack.Resource.MATRIX);
+    }
+
+    /**
+     * Checks whether a matrix is in the binary format
+     * @param matrix the contents of the matrix
+     * @return true if it starts with the magic number of {@link #write(Path)}
+     */
+    private static boolean isBinary(ByteBuffer matrix) {
+        return matrix.remaining() >= Integer.BYTES && matrix.getInt(matrix.position()) == MAGIC;
+    }
+
+    /**
+     * Memory maps a binary matrix
+     * @param file the binary matrix
+     * @return the mapped file
+     */
+    private static ByteBuffer map(Path file) {
+        try(FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Checks that a binary matrix was built for the words of the dictionary
+     * @param binary the binary matrix, header first
+     * @return the cells of the matrix, or null if it was built for other words
+     */
+    private ByteBuffer readHeader(ByteBuffer binary) {
+        int cellBytes = this.guesses.size() * this.answers.size() * this.width;
+        if(binary.remaining() != HEADER_SIZE + cellBytes || binary.getInt() != MAGIC
+                || binary.getInt() != this.guesses.size() || binary.getInt() != this.answers.size()
+                || binary.getInt() != this.width || binary.getInt() != this.checksum) {
+            return null;
+        }
+        return binary.slice();
+    }
+
+    /**
+     * Writes the matrix in a binary format that can be memory mapped
+     * @param file the file to write
+     */
+    public void write(Path file) {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        header.putInt(MAGIC).putInt(this.guesses.size()).putInt(this.answers.size()).putInt(this.width)
+                .putInt(this.checksum).flip();
+        try(FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer cells = this.cells.duplicate().clear();
+            while(header.hasRemaining() || cells.hasRemaining()) {
+                channel.write(new ByteBuffer[]{header, cells});
+            }
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Fills the matrix from a json file of the form {guess: {answer: result}}
+     * @param json the contents of the json file
+     */
+    private void readJson(ByteBuffer json) {
+        try(JsonReader reader = new JsonReader(new StringReader(StandardCharsets.UTF_8.decode(json.duplicate()).toString()))) {
             reader.setLenient(true);
             reader.beginObject();
             while(!reader.peek().equals(JsonToken.END_OBJECT)) {
-                String key1 = reader.nextName();
+                int row = this.guesses.indexOf(reader.nextName());
                 reader.beginObject();
-                Map<String, Integer> map2 = new HashMap<>();
                 while(!reader.peek().equals(JsonToken.END_OBJECT)) {
-                    String key2 = reader.nextName();
+                    int col = this.answers.indexOf(reader.nextName());
                     int value = reader.nextInt();
-                    map2.put(key2, value);
+                    if(row >= 0 && col >= 0) {
+                        set(row, col, value);
+                    }
                 }
                 reader.endObject();
-                matrix.put(key1, map2);
             }
         } catch (IOException e) {
             throw new RuntimeException(e);
@@ -45,21 +209,157 @@ public class DataMatrix {
     }
 
     /**
-     * Gets a list of strings that has the specified value at a combination with the specified String
-     * @param key the other index in the matrix
+     * Fills the matrix by scoring every guess against every answer, one row per task
+     */
+    private void compute() {
+        Pattern codec = Pattern.forLength(this.length);
+        IntStream.range(0, this.guesses.size()).parallel().forEach(row -> {
+            long guess = this.guesses.get(row);
+            for(int col = 0; col < this.answers.size(); col++) {
+                set(row, col, codec.score(guess, this.answers.get(col)));
+            }
+        });
+    }
+
+    /**
+     * Gets the result of a guess against an answer
+     * @param row the index of the guess
+     * @param col the index of the answer
+     * @return the result as an integer
+     */
+    public int get(int row, int col) {
+        int i = row * this.answers.size() + col;
+        if(this.width == 1) {
+            return this.cells.get(i) & 0xFF;
+        }
+        return this.cells.getShort(i << 1) & 0xFFFF;
+    }
+
+    /**
+     * Stores the result of a guess against an answer
+     * @param row the index of the guess
+     * @param col the index of the answer
+     * @param value the result as an integer
+     */
+    private void set(int row, int col, int value) {
+        int i = row * this.answers.size() + col;
+        if(this.width == 1) {
+            this.cells.put(i, (byte) value);
+        } else {
+            this.cells.putShort(i << 1, (short) value);
+        }
+    }
+
+    /**
+     * Gets the index of a guess
+     * @param guess the word
+     * @return the row of the word, or -1 if it can not be guessed
+     */
+    public int indexOfGuess(String guess) {
+        return this.guesses.indexOf(guess);
+    }
+
+    /**
+     * Gets the list of strings that has the specified value at a combination with the specified String
+     * @param key the guess
      * @param value the value at the given index
-     * @return a list a values that if given the specified key, would return the specified value
+     * @return a list of answers that if given the specified key, would return the specified value
      */
     public List<String> getIndices(String key, Integer value) {
         List<String> list = new ArrayList<>();
-        Map<String, Integer> keys = this.matrix.get(key);
-        for(String key2 : keys.keySet()) {
-            Integer value2 = keys.get(key2);
-            if(value2.equals(value)) {
-                list.add(key2);
-            }
+        int row = indexOfGuess(key);
+        if(row < 0 || value < 0 || value >= this.patternCount) return list;
+        ShortBuffer answers = getPartitions().answers(row, value);
+        while(answers.hasRemaining()) {
+            list.add(this.answers.word(answers.get() & 0xFFFF));
         }
         return list;
     }
 
+    /**
+     * Gets the answers of every guess grouped by result. The first call maps the pack's
+     * index if it lists one built from this matrix and builds the index otherwise, so
+     * startup never pays for it
+     * @return the partition index
+     */
+    public PartitionIndex getPartitions() {
+        PartitionIndex index = this.partitions;
+        if(index == null) {
+            synchronized(this) {
+                index = this.partitions;
+                if(index == null) {
+                    index = loadPartitions();
+                    this.partitions = index;
+                }
+            }
+        }
+        return index;
+    }
+
+    /**
+     * Reads the pack's partition index, or builds it if the pack has none or its index was built for other words
+     * @return the partition index
+     */
+    private PartitionIndex loadPartitions() {
+        if(this.pack.has(DictionaryPack.Resource.PARTITIONS)) {
+            PartitionIndex index = PartitionIndex.read(this.pack.readBytes(DictionaryPack.Resource.PARTITIONS), this);
+            if(index != null) return index;
+            System.err.println("The partition index of pack " + this.pack.getName() + " was built for other words, building it again");
+        }
+        return PartitionIndex.build(this);
+    }
+
+    /**
+     * Gets the binary matrix file the cells are mapped from, which other processes can map too
+     * @return the file, or null if the matrix was computed, read from json or read from inside a jar
+     */
+    Path getFile() {
+        return file;
+    }
+
+    /**
+     * Gets the checksum of the words the matrix was built from, recorded by the files derived from it
+     * @return the CRC32 of {@link #wordChecksum(WordList, WordList)}
+     */
+    int getChecksum() {
+        return checksum;
+    }
+
+    /**
+     * Gets the words that can be guessed, in row order
+     * @return the guesses
+     */
+    public WordList getGuesses() {
+        return guesses;
+    }
+
+    /**
+     * Gets the words that can be the answer, in column order
+     * @return the answers
+     */
+    public WordList getAnswers() {
+        return answers;
+    }
+
+    /**
+     * Gets the number of distinct values a cell can hold
+     * @return the number of patterns
+     */
+    public int getPatternCount() {
+        return patternCount;
+    }
+
+    /**
+     * Scores every guess of a pack against every answer and writes the binary matrix,
+     * ignoring any matrix the pack already lists so a stale one can be replaced
+     * @param args the pack, either a bundled name or a directory, and the file to write
+     */
+    public static void main(String[] args) {
+        if(args.length != 2) {
+            System.err.println("Usage: DataMatrix <pack> <matrix.bin>");
+            System.exit(-1);
+        }
+        DictionaryPack pack = DictionaryPack.resolve(args[0]);
+        new DataMatrix(pack.getDictionary(), null, null, true).write(Path.of(args[1]));
+    }
 }
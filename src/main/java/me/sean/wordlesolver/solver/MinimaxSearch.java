@@ -0,0 +1,112 @@
+package me.sean.wordlesolver.solver;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * Looks more than one guess ahead when scoring with {@link ScoringMode#MINIMAX}, finding the
+ * number of answers that can be left after several guesses if every result is chosen by an
+ * adversary. Only the most promising guesses of each level are searched
+ *
+ * @author Sean Droll
+ */
+class MinimaxSearch {
+    private final DataMatrix matrix;
+    private final int beamWidth;
+    private final double[] ones;
+
+    /**
+     * Creates a new search
+     * @param matrix the datamatrix containing the results
+     * @param beamWidth how many guesses to search at each level
+     */
+    MinimaxSearch(DataMatrix matrix, int beamWidth) {
+        this.matrix = matrix;
+        this.beamWidth = beamWidth;
+        this.ones = Priors.uniform(matrix.getAnswers().size()).getWeights();
+    }
+
+    /**
+     * Rescores the best guesses of a one step ranking by searching deeper, in parallel
+     * @param ranking the guesses ranked by their largest result
+     * @param candidates the columns of the remaining answers
+     * @param depth how many guesses to look ahead, including the first
+     * @return the ranking with the best guesses rescored and reordered
+     */
+    List<WordData> refine(List<WordData> ranking, int[] candidates, int depth) {
+        int width = Math.min(this.beamWidth, ranking.size());
+        List<WordData> refined = new ArrayList<>(ranking);
+        WordData[] top = IntStream.range(0, width).parallel().mapToObj(i -> {
+            String word = ranking.get(i).getWord();
+            int row = this.matrix.indexOfGuess(word);
+            return new WordData(word, worstCase(row, candidates, depth, Integer.MAX_VALUE));
+        }).toArray(WordData[]::new);
+        for(int i = 0; i < width; i++) {
+            refined.set(i, top[i]);
+        }
+        refined.subList(0, width).sort(ScoringMode.MINIMAX.ranking());
+        return refined;
+    }
+
+    /**
+     * Finds the number of answers left in the worst case after guessing a word and then
+     * playing the best guesses for the remaining depth
+     * @param row the row of the first guess
+     * @param candidates the columns of the remaining answers
+     * @param depth the number of guesses including this one
+     * @param bound stop early once the result is known to be at least this
+     * @return the worst case number of answers left
+     */
+    private int worstCase(int row, int[] candidates, int depth, int bound) {
+        double[] buckets = new double[this.matrix.getPatternCount()];
+        CalculateInformation.histogram(this.matrix, row, candidates, this.ones, buckets);
+        if(depth <= 1) {
+            return (int) ScoringMode.MINIMAX.score(buckets, candidates.length);
+        }
+        int[][] groups = CalculateInformation.partition(this.matrix, row, candidates);
+        Arrays.sort(groups, Comparator.comparingInt((int[] group) -> group.length).reversed());
+        int worst = 0;
+        for(int[] bucket : groups) {
+            if(bucket.length <= worst) break;
+            int best = bucket.length;
+            for(int next : guessesFor(bucket, depth - 1)) {
+                best = Math.min(best, worstCase(next, bucket, depth - 1, best));
+                if(best <= 1) break;
+            }
+            worst = Math.max(worst, best);
+            if(worst >= bound) break;
+        }
+        return worst;
+    }
+
+    /**
+     * Chooses which guesses to search for a group of candidates, every guess at the last
+     * level and the best few by their largest result otherwise
+     * @param candidates the columns of the remaining answers
+     * @param depth the depth that will be searched
+     * @return the rows of the guesses to search
+     */
+    private int[] guessesFor(int[] candidates, int depth) {
+        int guesses = this.matrix.getGuesses().size();
+        if(depth <= 1) {
+            return IntStream.range(0, guesses).toArray();
+        }
+        double[] buckets = new double[this.matrix.getPatternCount()];
+        long[] scored = new long[guesses];
+        for(int row = 0; row < guesses; row++) {
+            CalculateInformation.histogram(this.matrix, row, candidates, this.ones, buckets);
+            long max = (long) ScoringMode.MINIMAX.score(buckets, candidates.length);
+            scored[row] = (max << 32) | row;
+            Arrays.fill(buckets, 0);
+        }
+        Arrays.sort(scored);
+        int[] rows = new int[Math.min(this.beamWidth, guesses)];
+        for(int i = 0; i < rows.length; i++) {
+            rows[i] = (int) scored[i];
+        }
+        return rows;
+    }
+}
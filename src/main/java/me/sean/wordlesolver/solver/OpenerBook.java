@@ -0,0 +1,137 @@
+package me.sean.wordlesolver.solver;
+
+import me.sean.wordlesolver.dictionary.DictionaryPack;
+import me.sean.wordlesolver.dictionary.WordList;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.AbstractList;
+import java.util.List;
+import java.util.RandomAccess;
+import java.util.zip.CRC32;
+
+/**
+ * The ranking of every first guess, stored as a binary table of guess rows and float scores
+ * sorted best first. The table records a checksum of the words and priors it was computed
+ * from and is only used when they still match. Entries are read from the table when they are
+ * asked for, so loading a book does no parsing
+ *
+ * @author Sean Droll
+ */
+public final class OpenerBook extends AbstractList<WordData> implements RandomAccess {
+    private static final int MAGIC = 0x57504F42;
+    private static final int HEADER_SIZE = 12;
+    private static final int ENTRY_SIZE = 8;
+    private final WordList guesses;
+    private final ByteBuffer entries;
+
+    /**
+     * Creates a book over a table of entries
+     * @param guesses the words that can be guessed, in row order
+     * @param entries the row and score of each guess, best first
+     */
+    private OpenerBook(WordList guesses, ByteBuffer entries) {
+        this.guesses = guesses;
+        this.entries = entries;
+    }
+
+    /**
+     * Reads a book written with {@link #write(List, DataMatrix, Priors, Path)}, without copying it
+     * @param binary the book in its binary format
+     * @param matrix the datamatrix of the dictionary being solved
+     * @param priors the answer weights the ranking should use
+     * @return the book, or null if it is not a book or was computed for other words or priors
+     */
+    static OpenerBook read(ByteBuffer binary, DataMatrix matrix, Priors priors) {
+        ByteBuffer data = binary.slice();
+        if(data.remaining() < HEADER_SIZE || data.getInt(0) != MAGIC || data.getInt(4) != checksum(matrix, priors)) {
+            return null;
+        }
+        int count = data.getInt(8);
+        if(data.remaining() != HEADER_SIZE + count * ENTRY_SIZE) return null;
+        return new OpenerBook(matrix.getGuesses(), data.slice(HEADER_SIZE, count * ENTRY_SIZE));
+    }
+
+    /**
+     * Writes a ranking of first guesses as a book
+     * @param ranking the ranking, best first
+     * @param matrix the datamatrix the ranking was computed with
+     * @param priors the answer weights the ranking was computed with
+     * @param file the file to write
+     */
+    static void write(List<WordData> ranking, DataMatrix matrix, Priors priors, Path file) {
+        ByteBuffer data = ByteBuffer.allocate(HEADER_SIZE + ranking.size() * ENTRY_SIZE);
+        data.putInt(MAGIC).putInt(checksum(matrix, priors)).putInt(ranking.size());
+        for(WordData word : ranking) {
+            data.putInt(matrix.indexOfGuess(word.getWord())).putFloat((float) word.getData());
+        }
+        data.flip();
+        try(FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            while(data.hasRemaining()) {
+                channel.write(data);
+            }
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Computes the checksum of the words and priors a ranking depends on
+     * @param matrix the datamatrix of the dictionary
+     * @param priors the answer weights
+     * @return the CRC32 of the word length, the guesses, the answers and the weights
+     */
+    static int checksum(DataMatrix matrix, Priors priors) {
+        double[] weights = priors.getWeights();
+        ByteBuffer data = ByteBuffer.allocate(weights.length * Float.BYTES);
+        for(double weight : weights) {
+            data.putFloat((float) weight);
+        }
+        CRC32 crc = DataMatrix.wordChecksum(matrix.getGuesses(), matrix.getAnswers());
+        crc.update(data.flip());
+        return (int) crc.getValue();
+    }
+
+    /**
+     * Gets a guess of the ranking
+     * @param index the position in the ranking, 0 is the best guess
+     * @return the guess and its score
+     */
+    @Override
+    public WordData get(int index) {
+        int offset = index * ENTRY_SIZE;
+        return new WordData(this.guesses.word(this.entries.getInt(offset)), this.entries.getFloat(offset + 4));
+    }
+
+    /**
+     * Gets the number of guesses ranked
+     * @return the size of the book
+     */
+    @Override
+    public int size() {
+        return this.entries.capacity() / ENTRY_SIZE;
+    }
+
+    /**
+     * Ranks every first guess of a pack in parallel and writes the book listed as the pack's openers
+     * @param args the pack name or directory and the file to write
+     */
+    public static void main(String[] args) {
+        if(args.length != 2) {
+            System.err.println("Usage: OpenerBook <pack> <openers.bin>");
+            System.exit(-1);
+        }
+        DictionaryPack pack = DictionaryPack.resolve(args[0]);
+        DataMatrix matrix = new DataMatrix(pack.getDictionary());
+        Priors priors = Priors.forPack(pack, matrix.getAnswers());
+        int[] candidates = CandidateSet.all(matrix.getAnswers().size()).columns();
+        List<WordData> ranking = Solver.rank(matrix, candidates, priors.getWeights(), ScoringMode.ENTROPY,
+                Runtime.getRuntime().availableProcessors());
+        write(ranking, matrix, priors, Path.of(args[1]));
+        System.out.println("Ranked " + ranking.size() + " openers, best " + ranking.get(0));
+    }
+}
@@ -0,0 +1,181 @@
+package me.sean.wordlesolver.solver;
+
+import me.sean.wordlesolver.dictionary.DictionaryPack;
+import me.sean.wordlesolver.dictionary.Pattern;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.ShortBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.PrimitiveIterator;
+import java.util.stream.IntStream;
+
+/**
+ * For every guess, the answers grouped by the result they give, stored as one array of
+ * offsets and one array of answer columns. The answers giving a result are a contiguous,
+ * ascending run of columns that is returned without copying. The index can be written to a
+ * file when a pack is generated and memory mapped when it is loaded
+ *
+ * @author Sean Droll
+ */
+public final class PartitionIndex {
+    private static final int MAGIC = 0x57504958;
+    private static final int HEADER_SIZE = 20;
+    private final int patterns;
+    private final ByteBuffer data;
+    private final IntBuffer offsets;
+    private final ShortBuffer ids;
+
+    /**
+     * Creates an index over a buffer holding a header, the offsets and the columns
+     * @param data the index in its binary format
+     * @param guesses the number of guesses
+     * @param answers the number of answers
+     * @param patterns the number of results a guess can have
+     */
+    private PartitionIndex(ByteBuffer data, int guesses, int answers, int patterns) {
+        this.patterns = patterns;
+        this.data = data;
+        int offsetBytes = (guesses * patterns + 1) * Integer.BYTES;
+        this.offsets = data.slice(HEADER_SIZE, offsetBytes).asIntBuffer();
+        this.ids = data.slice(HEADER_SIZE + offsetBytes, guesses * answers * Short.BYTES).asShortBuffer();
+    }
+
+    /**
+     * Builds the index of a matrix, one row per task
+     * @param matrix the datamatrix containing the results
+     * @return the index
+     */
+    static PartitionIndex build(DataMatrix matrix) {
+        int guesses = matrix.getGuesses().size();
+        int answers = matrix.getAnswers().size();
+        int patterns = matrix.getPatternCount();
+        Pattern codec = Pattern.forLength(matrix.getGuesses().getLength());
+        ByteBuffer data = ByteBuffer.allocate(size(guesses, answers, patterns));
+        data.putInt(0, MAGIC).putInt(4, guesses).putInt(8, answers).putInt(12, patterns).putInt(16, matrix.getChecksum());
+        PartitionIndex index = new PartitionIndex(data, guesses, answers, patterns);
+        IntStream.range(0, guesses).parallel().forEach(row -> {
+            int[] next = new int[patterns];
+            for(int col = 0; col < answers; col++) {
+                next[matrix.get(row, col)]++;
+            }
+            int offset = row * answers;
+            for(PrimitiveIterator.OfInt codes = codec.iterator(); codes.hasNext(); ) {
+                int pattern = codes.nextInt();
+                int count = next[pattern];
+                index.offsets.put(row * patterns + pattern, offset);
+                next[pattern] = offset;
+                offset += count;
+            }
+            for(int col = 0; col < answers; col++) {
+                index.ids.put(next[matrix.get(row, col)]++, (short) col);
+            }
+        });
+        index.offsets.put(guesses * patterns, guesses * answers);
+        return index;
+    }
+
+    /**
+     * Reads an index written with {@link #write(Path)}, without copying it
+     * @param binary the index in its binary format
+     * @param matrix the datamatrix the index was built from
+     * @return the index, or null if it was built for other words
+     */
+    static PartitionIndex read(ByteBuffer binary, DataMatrix matrix) {
+        int guesses = matrix.getGuesses().size();
+        int answers = matrix.getAnswers().size();
+        int patterns = matrix.getPatternCount();
+        ByteBuffer data = binary.slice();
+        if(data.remaining() != size(guesses, answers, patterns) || data.getInt(0) != MAGIC
+                || data.getInt(4) != guesses || data.getInt(8) != answers || data.getInt(12) != patterns
+                || data.getInt(16) != matrix.getChecksum()) {
+            return null;
+        }
+        return new PartitionIndex(data, guesses, answers, patterns);
+    }
+
+    /**
+     * Gets the size of an index in bytes
+     * @param guesses the number of guesses
+     * @param answers the number of answers
+     * @param patterns the number of results a guess can have
+     * @return the size of the binary format
+     */
+    private static int size(int guesses, int answers, int patterns) {
+        if(answers > 1 << 16) {
+            throw new IllegalArgumentException("Partition index supports at most " + (1 << 16) + " answers");
+        }
+        long size = HEADER_SIZE + ((long) guesses * patterns + 1) * Integer.BYTES + (long) guesses * answers * Short.BYTES;
+        if(size > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Partition index would be too large");
+        }
+        return (int) size;
+    }
+
+    /**
+     * Writes the index so it can be memory mapped by {@link #read(ByteBuffer, DataMatrix)}
+     * @param file the file to write
+     */
+    public void write(Path file) {
+        try(FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer data = this.data.duplicate().clear();
+            while(data.hasRemaining()) {
+                channel.write(data);
+            }
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Gets the number of answers that give a result for a guess
+     * @param row the row of the guess
+     * @param pattern the result
+     * @return the number of answers
+     */
+    public int size(int row, int pattern) {
+        int i = row * this.patterns + pattern;
+        return this.offsets.get(i + 1) - this.offsets.get(i);
+    }
+
+    /**
+     * Gets the answers that give a result for a guess, without copying. Columns are unsigned,
+     * read them with {@code & 0xFFFF}
+     * @param row the row of the guess
+     * @param pattern the result
+     * @return a read only view of the answer columns, in ascending order
+     */
+    public ShortBuffer answers(int row, int pattern) {
+        int i = row * this.patterns + pattern;
+        int start = this.offsets.get(i);
+        return this.ids.slice(start, this.offsets.get(i + 1) - start).asReadOnlyBuffer();
+    }
+
+    /**
+     * Gets the column of one answer giving a result, for reading a slice without a view
+     * @param row the row of the guess
+     * @param pattern the result
+     * @param i the position of the answer in the slice
+     * @return the answer column
+     */
+    int answer(int row, int pattern, int i) {
+        return this.ids.get(this.offsets.get(row * this.patterns + pattern) + i) & 0xFFFF;
+    }
+
+    /**
+     * Builds the index of a pack and writes it to a file, to be listed as the pack's partitions
+     * @param args the pack name or directory and the file to write
+     */
+    public static void main(String[] args) {
+        if(args.length != 2) {
+            System.err.println("Usage: PartitionIndex <pack> <partitions.bin>");
+            System.exit(-1);
+        }
+        DictionaryPack pack = DictionaryPack.resolve(args[0]);
+        build(new DataMatrix(pack.getDictionary())).write(Path.of(args[1]));
+    }
+}
@@ -0,0 +1,171 @@
+package me.sean.wordlesolver.solver;
+
+import me.sean.wordlesolver.dictionary.DictionaryPack;
+import me.sean.wordlesolver.dictionary.WordList;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+/**
+ * How likely each answer is to be the secret word, as a weight per answer in answer order.
+ * Stored compactly as a header followed by one float per answer
+ *
+ * @author Sean Droll
+ */
+public class Priors {
+    private static final int MAGIC = 0x57505249;
+    private static final double UNLISTED_WEIGHT = 1;
+    private final double[] weights;
+
+    /**
+     * Creates a new set of priors
+     * @param weights the weight of every answer by column
+     */
+    private Priors(double[] weights) {
+        this.weights = weights;
+    }
+
+    /**
+     * Creates priors where every answer is equally likely
+     * @param answers the number of answers
+     * @return the uniform priors
+     */
+    public static Priors uniform(int answers) {
+        double[] weights = new double[answers];
+        Arrays.fill(weights, 1);
+        return new Priors(weights);
+    }
+
+    /**
+     * Reads the priors a pack lists, or creates uniform priors if it lists none
+     * @param pack the pack
+     * @param answers the answers of the pack
+     * @return the priors the pack's rankings are computed with
+     */
+    public static Priors forPack(DictionaryPack pack, WordList answers) {
+        if(!pack.has(DictionaryPack.Resource.PRIORS)) return uniform(answers.size());
+        try(InputStream in = pack.open(DictionaryPack.Resource.PRIORS)) {
+            return read(in, answers);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Reads priors written by {@link #write(OutputStream)}
+     * @param in the stream to read from
+     * @param answers the answers the priors must match
+     * @return the priors
+     * @throws IOException if the stream can not be read or does not match the answers
+     */
+    public static Priors read(InputStream in, WordList answers) throws IOException {
+        DataInputStream data = new DataInputStream(new BufferedInputStream(in));
+        if(data.readInt() != MAGIC) {
+            throw new IOException("Not a priors file");
+        }
+        int count = data.readInt();
+        if(count != answers.size()) {
+            throw new IOException("Priors has " + count + " weights but there are " + answers.size() + " answers");
+        }
+        double[] weights = new double[count];
+        for(int i = 0; i < count; i++) {
+            weights[i] = checkWeight(data.readFloat());
+        }
+        return new Priors(weights);
+    }
+
+    /**
+     * Reads priors from text with a word and its weight on each line, such as usage counts.
+     * Answers that are not listed get the default weight
+     * @param reader the text to read
+     * @param answers the answers to assign weights to
+     * @param defaultWeight the weight of unlisted answers
+     * @return the priors
+     * @throws IOException if the text can not be read
+     */
+    public static Priors fromText(BufferedReader reader, WordList answers, double defaultWeight) throws IOException {
+        double[] weights = new double[answers.size()];
+        Arrays.fill(weights, checkWeight(defaultWeight));
+        String line = reader.readLine();
+        while(line != null) {
+            String[] parts = line.strip().split("\\s+");
+            if(parts.length == 2) {
+                int col = answers.indexOf(parts[0]);
+                if(col >= 0) {
+                    weights[col] = checkWeight(Double.parseDouble(parts[1]));
+                }
+            }
+            line = reader.readLine();
+        }
+        return new Priors(weights);
+    }
+
+    /**
+     * Checks that a weight can be used as a probability weight
+     * @param weight the weight
+     * @return the weight
+     */
+    private static double checkWeight(double weight) {
+        if(!(weight >= 0) || Double.isInfinite(weight)) {
+            throw new IllegalArgumentException("Invalid prior weight " + weight);
+        }
+        return weight;
+    }
+
+    /**
+     * Writes the priors in their compact form
+     * @param out the stream to write to
+     * @throws IOException if the stream can not be written
+     */
+    public void write(OutputStream out) throws IOException {
+        DataOutputStream data = new DataOutputStream(new BufferedOutputStream(out));
+        data.writeInt(MAGIC);
+        data.writeInt(this.weights.length);
+        for(double weight : this.weights) {
+            data.writeFloat((float) weight);
+        }
+        data.flush();
+    }
+
+    /**
+     * Gets the weight of every answer. The array is shared and must not be modified
+     * @return the weights by answer column
+     */
+    double[] getWeights() {
+        return weights;
+    }
+
+    /**
+     * Gets the weight of one answer
+     * @param col the column of the answer
+     * @return its weight
+     */
+    public double getWeight(int col) {
+        return this.weights[col];
+    }
+
+    /**
+     * Converts a text priors file into the compact form for a dictionary pack. Answers missing
+     * from the text get the default weight, one use unless given, so they stay possible
+     * @param args the pack name or directory, the text file, the output file and optionally the default weight
+     * @throws IOException if a file can not be read or written
+     */
+    public static void main(String[] args) throws IOException {
+        if(args.length != 3 && args.length != 4) {
+            System.err.println("Usage: Priors <pack> <weights.txt> <priors.bin> [default weight]");
+            System.exit(-1);
+        }
+        double defaultWeight = args.length == 4 ? Double.parseDouble(args[3]) : UNLISTED_WEIGHT;
+        DictionaryPack pack = DictionaryPack.resolve(args[0]);
+        Priors priors;
+        try(BufferedReader reader = Files.newBufferedReader(Path.of(args[1]), StandardCharsets.UTF_8)) {
+            priors = fromText(reader, pack.getDictionary().getAnswers(), defaultWeight);
+        }
+        try(OutputStream out = Files.newOutputStream(Path.of(args[2]))) {
+            priors.write(out);
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package me.sean.wordlesolver.solver;
+
+/**
+ * How much work a {@link SolverPolicy} asks for, each tier refines the result of the one
+ * before it. Every tier scores guesses by the information they are expected to gain, in bits
+ *
+ * @author Sean Droll
+ */
+public enum QualityTier {
+
+    /**
+     * The average information gained by each guess
+     */
+    ENTROPY,
+
+    /**
+     * The average information gained, plus the chance the guess is the answer times the
+     * information still needed, so guesses that can win right away are preferred
+     */
+    CANDIDATE_BIAS,
+
+    /**
+     * The best guesses with candidate bias are rescored by the information expected from
+     * them and the best second guess after each of their results
+     */
+    LOOKAHEAD
+}
@@ -0,0 +1,92 @@
+package me.sean.wordlesolver.solver;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A bounded, thread safe cache of the best few guesses for sets of candidates, shared by
+ * everything ranking positions with the same solver. Rankings are kept apart by the policy
+ * they were ranked with, whose quality tier fixes how guesses are scored, and by the priors
+ * they were weighted with. The least recently used ranking is dropped once
+ * the cache is full, so memory stays bounded however many positions are seen
+ *
+ * @author Sean Droll
+ */
+public class RankingCache {
+    private final Solver solver;
+    private final int keep;
+    private final Map<Key, List<WordData>> entries;
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    /**
+     * Identifies a ranking by what it was computed from
+     * @param candidates the answers still possible
+     * @param policy the quality tier and time budget the guesses were ranked with
+     * @param priors the answer weights the guesses were scored with
+     */
+    private record Key(CandidateSet candidates, SolverPolicy policy, Priors priors) {
+    }
+
+    /**
+     * Creates a new cache
+     * @param solver the solver to rank positions with
+     * @param maxEntries the most rankings to remember
+     * @param keep how many of the best guesses to remember for each set
+     */
+    public RankingCache(Solver solver, int maxEntries, int keep) {
+        this.solver = solver;
+        this.keep = keep;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, List<WordData>> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    /**
+     * Gets the best guesses for a set of candidates as well as a policy allows, weighted by the
+     * solver's current priors, ranking them if they are not cached. Two threads missing on the
+     * same ranking at once may both rank it
+     * @param candidates the answers still possible
+     * @param policy the quality tier wanted and the time it may take
+     * @return the best guesses, best first
+     */
+    public List<WordData> get(CandidateSet candidates, SolverPolicy policy) {
+        Key key = new Key(candidates, policy, this.solver.getPriors());
+        List<WordData> best;
+        synchronized(this.entries) {
+            best = this.entries.get(key);
+        }
+        if(best != null) {
+            this.hits.incrementAndGet();
+            return best;
+        }
+        this.misses.incrementAndGet();
+        List<WordData> ranking = this.solver.rank(candidates, policy);
+        best = List.copyOf(ranking.subList(0, Math.min(this.keep, ranking.size())));
+        synchronized(this.entries) {
+            this.entries.put(key, best);
+        }
+        return best;
+    }
+
+    /**
+     * Gets the number of lookups that were already cached
+     * @return the number of hits
+     */
+    public long getHits() {
+        return hits.get();
+    }
+
+    /**
+     * Gets the number of lookups that had to be ranked
+     * @return the number of misses
+     */
+    public long getMisses() {
+        return misses.get();
+    }
+}
@@ -0,0 +1,84 @@
+package me.sean.wordlesolver.solver;
+
+import java.util.Comparator;
+
+/**
+ * The ways a guess can be scored from how the remaining answers split between its results
+ *
+ * @author Sean Droll
+ */
+public enum ScoringMode {
+
+    /**
+     * The average information gained, in bits, with each answer as likely as its prior
+     * weight. Higher is better
+     */
+    ENTROPY {
+        @Override
+        double score(double[] buckets, double total) {
+            double avgInfo = 0;
+            for(double weight : buckets) {
+                if(weight > 0) {
+                    double prob = weight/total;
+                    avgInfo -= prob*Math.log(prob);
+                }
+            }
+            return avgInfo/CalculateInformation.LN_2;
+        }
+
+        @Override
+        public Comparator<WordData> ranking() {
+            return Comparator.comparingDouble(WordData::getData).reversed();
+        }
+    },
+
+    /**
+     * The number of answers left in the worst case, as an adversary such as Absurdle would
+     * choose. Lower is better
+     */
+    MINIMAX {
+        @Override
+        double score(double[] buckets, double total) {
+            double max = 0;
+            for(double weight : buckets) {
+                if(weight > max) {
+                    max = weight;
+                }
+            }
+            return max;
+        }
+
+        @Override
+        public boolean usesPriors() {
+            return false;
+        }
+
+        @Override
+        public Comparator<WordData> ranking() {
+            return Comparator.comparingDouble(WordData::getData);
+        }
+    };
+
+    /**
+     * Scores a guess from the weight of the remaining answers that give each result
+     * @param buckets the total weight of the answers for each result
+     * @param total the total weight of the remaining answers
+     * @return the score of the guess
+     */
+    abstract double score(double[] buckets, double total);
+
+    /**
+     * Checks whether this mode weights answers by their priors, otherwise every answer
+     * has a weight of 1 and each bucket holds the number of answers
+     * @return true if priors should be used
+     */
+    public boolean usesPriors() {
+        return true;
+    }
+
+    /**
+     * Gets the order in which scored guesses should be suggested
+     * @return a comparator putting the best guess first
+     */
+    public abstract Comparator<WordData> ranking();
+}
@@ -0,0 +1,112 @@
+package me.sean.wordlesolver.solver;
+
+import me.sean.wordlesolver.dictionary.Dictionary;
+import me.sean.wordlesolver.dictionary.DictionaryPack;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * A process that scores shards of the guess list for a {@link ShardCoordinator}. The worker
+ * memory maps the same binary matrix as the coordinator, connects back to it and answers
+ * each shard with its best few guesses until it is told to stop or the connection closes
+ *
+ * @author Sean Droll
+ */
+public class ScoringWorker {
+    static final int SHUTDOWN = 0;
+    static final int SHARD = 1;
+    private final DataMatrix matrix;
+
+    /**
+     * Creates a new worker
+     * @param matrix the datamatrix to score with
+     */
+    ScoringWorker(DataMatrix matrix) {
+        this.matrix = matrix;
+    }
+
+    /**
+     * Answers shards sent over a connection until told to stop, after identifying this
+     * process to the coordinator
+     * @param socket the connection to the coordinator
+     * @throws IOException if the connection fails
+     */
+    void serve(Socket socket) throws IOException {
+        DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+        out.writeLong(ProcessHandle.current().pid());
+        out.flush();
+        while(in.readInt() == SHARD) {
+            ScoringMode mode = ScoringMode.values()[in.readInt()];
+            int start = in.readInt();
+            int end = in.readInt();
+            int keep = in.readInt();
+            int[] candidates = new int[in.readInt()];
+            for(int i = 0; i < candidates.length; i++) {
+                candidates[i] = in.readInt();
+            }
+            double[] weights = new double[in.readInt()];
+            for(int i = 0; i < weights.length; i++) {
+                weights[i] = in.readDouble();
+            }
+            List<WordData> best = score(this.matrix, candidates, weights, start, end, mode, keep);
+            out.writeInt(best.size());
+            for(WordData word : best) {
+                out.writeInt(this.matrix.indexOfGuess(word.getWord()));
+                out.writeDouble(word.getData());
+            }
+            out.flush();
+        }
+    }
+
+    /**
+     * Scores a shard of guesses and keeps the best of them
+     * @param matrix the datamatrix to score with
+     * @param candidates the columns of the remaining answers
+     * @param weights the weight of every answer by column
+     * @param start the first row of the shard
+     * @param end the row after the last row of the shard
+     * @param mode how to score each guess
+     * @param keep how many of the best guesses to keep
+     * @return the best guesses of the shard, best first
+     */
+    static List<WordData> score(DataMatrix matrix, int[] candidates, double[] weights, int start, int end,
+                                ScoringMode mode, int keep) {
+        CalculateInformation shard = new CalculateInformation(matrix, candidates, weights, start, end, mode);
+        shard.run();
+        List<WordData> data = shard.getData();
+        data.sort(Solver.order(mode, matrix, candidates));
+        return data.subList(0, Math.min(keep, data.size()));
+    }
+
+    /**
+     * Starts a worker, usually launched by a {@link ShardCoordinator}
+     * @param args the pack name or directory, the binary matrix and the coordinator's port
+     */
+    public static void main(String[] args) {
+        if(args.length != 3) {
+            System.err.println("Usage: ScoringWorker <pack> <matrix> <port>");
+            System.exit(-1);
+        }
+        DictionaryPack pack = DictionaryPack.resolve(args[0]);
+        Dictionary dictionary = pack.getDictionary();
+        ScoringWorker worker = new ScoringWorker(new DataMatrix(dictionary, Path.of(args[1])));
+        try(Socket socket = new Socket(InetAddress.getLoopbackAddress(), Integer.parseInt(args[2]))) {
+            socket.setTcpNoDelay(true);
+            worker.serve(socket);
+        } catch (EOFException e) {
+            // the coordinator went away
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+}
@@ -0,0 +1,280 @@
+package me.sean.wordlesolver.solver;
+
+import me.sean.wordlesolver.dictionary.DictionaryPack;
+import me.sean.wordlesolver.dictionary.WordList;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Scores guesses in separate worker processes on this machine. The guess list is split into
+ * shards which idle workers take in turn, each worker returns the best few guesses of its
+ * shards and the coordinator merges them. A worker serves one shard at a time, so several
+ * rankings can run at once. A shard held by a worker that dies or stops answering is handed
+ * to another worker, or scored by the coordinator itself if no worker is left
+ *
+ * @author Sean Droll
+ */
+public class ShardCoordinator implements AutoCloseable {
+    private static final int SHARDS_PER_WORKER = 4;
+    private static final int CONNECT_TIMEOUT = 60_000;
+    private static final int READ_TIMEOUT = 30_000;
+    private static final int STOP_TIMEOUT = 1_000;
+    private final DataMatrix matrix;
+    private final Path matrixFile;
+    private final boolean temporary;
+    private final List<Worker> workers = new ArrayList<>();
+
+    /**
+     * A connection to one worker process, locked while a shard is exchanged with it
+     */
+    private static class Worker {
+        private final Process process;
+        private Socket socket;
+        private DataInputStream in;
+        private DataOutputStream out;
+        private volatile boolean alive = true;
+
+        /**
+         * Creates a new worker that has not connected yet
+         * @param process the worker process
+         */
+        Worker(Process process) {
+            this.process = process;
+        }
+
+        /**
+         * Attaches the connection the worker made back to the coordinator
+         * @param socket the connection
+         * @param in the input of the connection
+         * @throws IOException if the connection can not be used
+         */
+        void connect(Socket socket, DataInputStream in) throws IOException {
+            socket.setTcpNoDelay(true);
+            this.socket = socket;
+            this.in = in;
+            this.out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+        }
+
+        /**
+         * Stops the worker, killing its process if it does not exit by itself within a second
+         */
+        synchronized void stop() {
+            this.alive = false;
+            try {
+                if(this.out != null) {
+                    this.out.writeInt(ScoringWorker.SHUTDOWN);
+                    this.out.flush();
+                }
+                if(this.socket != null) {
+                    this.socket.close();
+                }
+            } catch (IOException e) {
+                // the worker is already gone
+            }
+            this.process.destroy();
+            try {
+                if(!this.process.waitFor(STOP_TIMEOUT, TimeUnit.MILLISECONDS)) {
+                    this.process.destroyForcibly();
+                }
+            } catch (InterruptedException e) {
+                this.process.destroyForcibly();
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Starts worker processes that map the pack's own matrix file, or a copy of the matrix
+     * written to a temporary file when it is inside a jar or was computed
+     * @param pack the pack the matrix was built from
+     * @param matrix the datamatrix to score with
+     * @param processes the number of worker processes
+     * @throws IOException if the workers can not be started
+     */
+    public ShardCoordinator(DictionaryPack pack, DataMatrix matrix, int processes) throws IOException {
+        this.matrix = matrix;
+        this.temporary = matrix.getFile() == null;
+        if(this.temporary) {
+            this.matrixFile = Files.createTempFile("wordle-matrix", ".bin");
+            this.matrixFile.toFile().deleteOnExit();
+            matrix.write(this.matrixFile);
+        } else {
+            this.matrixFile = matrix.getFile();
+        }
+        String java = Path.of(System.getProperty("java.home"), "bin", "java").toString();
+        String packArg = pack.getDirectory() != null ? pack.getDirectory().toString() : pack.getName();
+        try(ServerSocket server = new ServerSocket(0, processes, InetAddress.getLoopbackAddress())) {
+            server.setSoTimeout(CONNECT_TIMEOUT);
+            for(int i = 0; i < processes; i++) {
+                Process process = new ProcessBuilder(java, "-cp", System.getProperty("java.class.path"),
+                        ScoringWorker.class.getName(), packArg, this.matrixFile.toString(),
+                        Integer.toString(server.getLocalPort())).inheritIO().start();
+                this.workers.add(new Worker(process));
+            }
+            for(int i = 0; i < processes; i++) {
+                Socket socket = server.accept();
+                socket.setSoTimeout(READ_TIMEOUT);
+                DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+                long pid = in.readLong();
+                Worker match = null;
+                for(Worker worker : this.workers) {
+                    if(worker.process.pid() == pid && worker.socket == null) {
+                        match = worker;
+                    }
+                }
+                if(match == null) {
+                    socket.close();
+                    throw new IOException("Unknown process " + pid + " connected as a worker");
+                }
+                match.connect(socket, in);
+            }
+        } catch (IOException e) {
+            close();
+            throw e;
+        }
+    }
+
+    /**
+     * Scores every guess against a set of candidates across the workers
+     * @param candidates the columns of the remaining answers
+     * @param weights the weight of every answer by column
+     * @param mode how to score each guess
+     * @param keep how many of the best guesses to return
+     * @return the best guesses, best first
+     */
+    public List<WordData> rank(int[] candidates, double[] weights, ScoringMode mode, int keep) {
+        int guesses = this.matrix.getGuesses().size();
+        int shards = Math.max(1, this.workers.size() * SHARDS_PER_WORKER);
+        double chunks = (double)guesses/(double)shards;
+        Queue<int[]> queue = new ConcurrentLinkedQueue<>();
+        for(int i = 0; i < shards; i++) {
+            queue.add(new int[]{(int)Math.floor(chunks*i), (int)Math.floor(chunks*(i+1))});
+        }
+        List<WordData> merged = Collections.synchronizedList(new ArrayList<>());
+        List<Thread> threads = new ArrayList<>();
+        for(Worker worker : this.workers) {
+            if(!worker.alive) continue;
+            Thread thread = new Thread(() -> {
+                int[] shard = queue.poll();
+                while(shard != null) {
+                    List<WordData> best;
+                    synchronized(worker) {
+                        if(!worker.alive) {
+                            queue.add(shard);
+                            return;
+                        }
+                        try {
+                            best = send(worker, candidates, weights, shard, mode, keep);
+                        } catch (IOException e) {
+                            queue.add(shard);
+                            worker.stop();
+                            return;
+                        }
+                    }
+                    merged.addAll(best);
+                    shard = queue.poll();
+                }
+            });
+            thread.start();
+            threads.add(thread);
+        }
+        for(Thread thread : threads) {
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                throw new RuntimeException(e);
+            }
+        }
+        int[] shard = queue.poll();
+        while(shard != null) {
+            merged.addAll(ScoringWorker.score(this.matrix, candidates, weights, shard[0], shard[1], mode, keep));
+            shard = queue.poll();
+        }
+        List<WordData> data = new ArrayList<>(merged);
+        data.sort(Solver.order(mode, this.matrix, candidates));
+        return new ArrayList<>(data.subList(0, Math.min(keep, data.size())));
+    }
+
+    /**
+     * Has a worker score one shard, the caller must hold the worker's lock
+     * @param worker the worker
+     * @param candidates the columns of the remaining answers
+     * @param weights the weight of every answer by column
+     * @param shard the first row of the shard and the row after its last row
+     * @param mode how to score each guess
+     * @param keep how many of the best guesses to return
+     * @return the best guesses of the shard
+     * @throws IOException if the worker can not be reached or does not answer in time
+     */
+    private List<WordData> send(Worker worker, int[] candidates, double[] weights, int[] shard, ScoringMode mode,
+                                int keep) throws IOException {
+        DataOutputStream out = worker.out;
+        out.writeInt(ScoringWorker.SHARD);
+        out.writeInt(mode.ordinal());
+        out.writeInt(shard[0]);
+        out.writeInt(shard[1]);
+        out.writeInt(keep);
+        out.writeInt(candidates.length);
+        for(int col : candidates) {
+            out.writeInt(col);
+        }
+        out.writeInt(weights.length);
+        for(double weight : weights) {
+            out.writeDouble(weight);
+        }
+        out.flush();
+        WordList guesses = this.matrix.getGuesses();
+        List<WordData> best = new ArrayList<>();
+        int count = worker.in.readInt();
+        for(int i = 0; i < count; i++) {
+            int row = worker.in.readInt();
+            best.add(new WordData(guesses.word(row), worker.in.readDouble()));
+        }
+        return best;
+    }
+
+    /**
+     * Gets the number of workers still running
+     * @return the number of live workers
+     */
+    public int getLiveWorkers() {
+        int live = 0;
+        for(Worker worker : this.workers) {
+            if(worker.alive && worker.process.isAlive()) {
+                live++;
+            }
+        }
+        return live;
+    }
+
+    /**
+     * Stops every worker once it finishes the shard it is scoring and deletes the matrix file if it was a copy
+     */
+    @Override
+    public void close() {
+        for(Worker worker : this.workers) {
+            worker.stop();
+        }
+        if(!this.temporary) return;
+        try {
+            Files.deleteIfExists(this.matrixFile);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+}
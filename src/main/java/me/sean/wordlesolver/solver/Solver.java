@@ -1,12 +1,17 @@
 package me.sean.wordlesolver.solver;
 
-import java.io.BufferedReader;
-import java.io.FileNotFoundException;
-import java.io.FileReader;
+import me.sean.wordlesolver.dictionary.Dictionary;
+import me.sean.wordlesolver.dictionary.DictionaryPack;
+import me.sean.wordlesolver.dictionary.Pattern;
+import me.sean.wordlesolver.metrics.LatencyMetrics;
+import me.sean.wordlesolver.metrics.StartupMetrics;
+
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Comparator;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 /**
  * Solves a given wordle by caulculating the average information gained from each possible result
@@ -14,87 +19,276 @@ import java.util.List;
  * @author Sean Droll
  */
 public class Solver {
-    private static final String VALID_WORDS_PATH = "src/main/resources/valid-wordle-words.txt";
-    private static final String DATA_MATRIX_PATH = "src/main/resources/datamatrix.json";
-    private static final String WORD_DATA_PATH = "src/main/resources/worddata.json";
-    private static final DataMatrix DATA_MATRIX = new DataMatrix(DATA_MATRIX_PATH);
-    private List<String> validWords;
-    private List<WordData> wordData;
+    private static final int DEFAULT_THREADS = Runtime.getRuntime().availableProcessors();
+    private static final int MINIMAX_BEAM_WIDTH = 10;
+    private static final int DISTRIBUTED_KEEP = 100;
+    private final DictionaryPack pack;
+    private final DataMatrix matrix;
+    private final Pattern codec;
+    private final Priors uniform;
+    private Priors priors;
+    private SolverState root;
+    private SolverState current;
+    private ScoringMode mode = ScoringMode.ENTROPY;
+    private int depth = 1;
+    private ShardCoordinator workers;
 
 
     /**
-     * Creates a new instance of solver
+     * Creates a new instance of solver for the default dictionary pack
      */
     public Solver() {
-        this.validWords = initializeValidWordsPath();
-        this.wordData = WordData.getWordDataFromFile(WORD_DATA_PATH);
+        this(Dictionary.getDefault());
     }
 
     /**
-     * Initializes the list of valid words
-     * @return the list of valid wordle answers
+     * Creates a new instance of solver
+     * @param dictionary the dictionary to solve
      */
-    private static List<String> initializeValidWordsPath() {
-        List<String> list = new ArrayList<>();
-        try(BufferedReader br = new BufferedReader(new FileReader(Solver.VALID_WORDS_PATH))) {
-            String line = br.readLine();
-            while(line != null) {
-                list.add(line.strip().toUpperCase());
-                line = br.readLine();
+    public Solver(Dictionary dictionary) {
+        this.pack = dictionary.getPack();
+        this.codec = Pattern.forLength(dictionary.getLength());
+        StartupMetrics.mark("dictionary");
+        this.matrix = new DataMatrix(dictionary);
+        StartupMetrics.mark("matrix");
+        int answers = this.matrix.getAnswers().size();
+        this.root = SolverState.root(CandidateSet.all(answers));
+        this.current = this.root;
+        this.uniform = Priors.uniform(answers);
+        this.priors = this.pack.has(DictionaryPack.Resource.PRIORS) ? Priors.forPack(this.pack, dictionary.getAnswers())
+                : this.uniform;
+        OpenerBook openers = null;
+        if(this.pack.has(DictionaryPack.Resource.OPENERS)) {
+            openers = OpenerBook.read(this.pack.readBytes(DictionaryPack.Resource.OPENERS), this.matrix, this.priors);
+            if(openers == null) {
+                System.err.println("Openers of " + this.pack + " do not match its words, ranking them again");
             }
-        } catch (FileNotFoundException e) {
-            System.err.println("Valid Words File not Found");
-            System.exit(-2);
-        } catch (IOException e) {
-            throw new RuntimeException(e);
         }
-        return list;
+        if(openers != null) {
+            this.root.putRanking(rankingKey(0), openers);
+        } else {
+            splitWork(DEFAULT_THREADS);
+        }
+        StartupMetrics.mark("openers");
+    }
+
+    /**
+     * Starts a new game, every answer is possible again. Rankings of the start of the game
+     * are kept, the history of the previous game is dropped
+     */
+    public void reset() {
+        this.root = this.root.detach();
+        this.current = this.root;
     }
 
     /**
-     * Converts an array of integers between 0 - 2 and converts it to an integer
-     * @param arr array of integers
-     * @return an integer describing the array
+     * Changes how guesses are scored and rescores them
+     * @param mode the new scoring mode
+     * @param depth how many guesses to look ahead in minimax mode, 1 to only consider the next guess
      */
-    private static int arrToInt(int[] arr) {
-        int n = 0;
-        int ind = arr.length - 1;
-        for(int i : arr) {
-            n += Math.pow(3, ind)*i;
-            ind -= 1;
+    public void setScoringMode(ScoringMode mode, int depth) {
+        if(depth < 1) {
+            throw new IllegalArgumentException("Depth must be at least 1, was " + depth);
         }
-        return n;
+        if(mode == this.mode && depth == this.depth) return;
+        this.mode = mode;
+        this.depth = depth;
+        splitWork(DEFAULT_THREADS);
     }
 
     /**
-     * Updates the list of valid words given the results of a wordle guess
+     * Changes how likely each answer is considered to be and rescores the guesses
+     * @param priors the weight of each answer, null to treat every answer as equally likely
+     */
+    public void setPriors(Priors priors) {
+        this.priors = priors == null ? this.uniform : priors;
+        splitWork(DEFAULT_THREADS);
+    }
+
+    /**
+     * Gets how guesses are currently scored
+     * @return the scoring mode
+     */
+    public ScoringMode getScoringMode() {
+        return mode;
+    }
+
+    /**
+     * Updates the list of valid words given the results of a wordle guess. The previous
+     * list is kept so the move can be undone
      * @param word the word that was guessed
      * @param results the results of that guess as described as an integer array
      */
     public void updateList(String word, int[] results) {
-        List<String> possible = DATA_MATRIX.getIndices(word, arrToInt(results));
-        List<String> newList = new ArrayList<>(this.validWords);
-        for (String possibility : this.validWords) {
-            if (!possible.contains(possibility)) {
-                newList.remove(possibility);
+        updateList(word, this.codec.encode(results));
+    }
 
-            }
+    /**
+     * Updates the list of valid words given the results of a wordle guess. The previous
+     * list is kept so the move can be undone
+     * @param word the word that was guessed
+     * @param pattern the results of that guess encoded as a {@link Pattern}
+     */
+    public void updateList(String word, int pattern) {
+        SolverState next = move(this.current, word, pattern);
+        if(next != null) {
+            this.current = next;
+        }
+    }
+
+    /**
+     * Gets the snapshot after making a move from another snapshot
+     * @param from the snapshot to move from
+     * @param word the word that was guessed
+     * @param pattern the results of that guess encoded as a {@link Pattern}
+     * @return the snapshot after the move, or null if the word can not be guessed
+     */
+    private SolverState move(SolverState from, String word, int pattern) {
+        if(pattern < 0 || pattern >= this.codec.count()) {
+            throw new IllegalArgumentException("Invalid pattern " + pattern);
         }
-        this.validWords = new ArrayList<>(newList);
+        int row = this.matrix.indexOfGuess(word);
+        if(row < 0) return null;
+        return from.child(this.matrix, row, pattern);
+    }
+
+    /**
+     * Takes back the last move
+     * @return true if there was a move to take back
+     */
+    public boolean undo() {
+        SolverState parent = this.current.getParent();
+        if(parent == null) return false;
+        parent.setLastChild(this.current);
+        this.current = parent;
+        return true;
+    }
+
+    /**
+     * Makes the last move that was taken back again
+     * @return true if there was a move to make again
+     */
+    public boolean redo() {
+        SolverState child = this.current.getLastChild();
+        if(child == null) return false;
+        this.current = child;
+        return true;
+    }
+
+    /**
+     * Ranks the guesses as if a different result had happened, without changing the game.
+     * The hypothetical snapshot and its ranking are kept, so asking again or actually making
+     * the move later is free
+     * @param word the word that was guessed
+     * @param results the results of that guess as described as an integer array
+     * @return the ranking after the move, best first
+     * @throws IllegalArgumentException if the word can not be guessed or no answer gives that result
+     */
+    public List<WordData> whatIf(String word, int[] results) {
+        SolverState state = move(this.current, word, this.codec.encode(results));
+        if(state == null) {
+            throw new IllegalArgumentException(word + " can not be guessed");
+        }
+        if(state.getCandidates().size() == 0) {
+            throw new IllegalArgumentException("No remaining answer gives " + this.codec.toString(this.codec.encode(results))
+                    + " for " + word);
+        }
+        return ranking(state, DEFAULT_THREADS);
+    }
+
+    /**
+     * Gets the current snapshot of the game
+     * @return the current snapshot
+     */
+    public SolverState getState() {
+        return current;
+    }
+
+    /**
+     * Jumps to a snapshot of the current game, such as one returned by {@link #getState()}
+     * before some moves were undone or a different line was explored
+     * @param state the snapshot to jump to
+     */
+    public void setState(SolverState state) {
+        SolverState top = state;
+        while(top.getParent() != null) {
+            top = top.getParent();
+        }
+        if(top != this.root) {
+            throw new IllegalArgumentException("Snapshot is not part of the current game");
+        }
+        this.current = state;
     }
 
     /**
      * Updates the WordData list to reflect the current state of the game, splits up the work to be
-     * run in parallel so it runs faster
-     * @param threads the number of threads to run
+     * run in parallel so it runs faster. Does nothing if the current snapshot has already been ranked
+     * @param threads the number of threads to run, ignored when {@link #distribute(int) worker processes} are used
      */
     public void splitWork(int threads) {
+        ranking(this.current, threads);
+    }
+
+    /**
+     * Gets the ranking of a snapshot with the current settings, computing it if it is not cached
+     * @param state the snapshot
+     * @param threads the number of threads to run
+     * @return the ranking, best first
+     */
+    private List<WordData> ranking(SolverState state, int threads) {
+        ShardCoordinator coordinator = this.workers;
+        SolverState.RankingKey key = rankingKey(coordinator != null ? DISTRIBUTED_KEEP : 0);
+        List<WordData> ranking = state.getRanking(key);
+        if(ranking == null) {
+            ranking = rank(state.getCandidates().columns(), threads, coordinator);
+            state.putRanking(key, ranking);
+        }
+        return ranking;
+    }
+
+    /**
+     * Identifies the current scoring settings
+     * @param limit how many of the best guesses the ranking keeps, 0 if it keeps every guess
+     * @return the key rankings with the current settings are cached under
+     */
+    private SolverState.RankingKey rankingKey(int limit) {
+        return new SolverState.RankingKey(this.mode, this.mode == ScoringMode.MINIMAX ? this.depth : 1,
+                priorsFor(this.mode), limit);
+    }
+
+    /**
+     * Scores every guess against a set of candidates, in parallel. Guesses that could be the
+     * answer come first among equally scored guesses
+     * @param candidates the columns of the remaining answers
+     * @param threads the number of threads to run
+     * @param coordinator the worker processes to score in, null to score in threads
+     * @return the ranking, best first, only the best guesses when scored in worker processes
+     */
+    private List<WordData> rank(int[] candidates, int threads, ShardCoordinator coordinator) {
+        if(coordinator != null) {
+            return refine(coordinator.rank(candidates, weights(), this.mode, DISTRIBUTED_KEEP), candidates);
+        }
+        return refine(rank(this.matrix, candidates, weights(), this.mode, threads), candidates);
+    }
+
+    /**
+     * Scores every guess against a set of candidates one guess deep, in parallel. Guesses that
+     * could be the answer come first among equally scored guesses
+     * @param matrix the datamatrix containing the results
+     * @param candidates the columns of the remaining answers
+     * @param weights the weight of every answer by column
+     * @param mode how to score each guess
+     * @param threads the number of threads to run
+     * @return the ranking of every guess, best first
+     */
+    static List<WordData> rank(DataMatrix matrix, int[] candidates, double[] weights, ScoringMode mode, int threads) {
         List<WordData> data = new ArrayList<>();
         List<CalculateInformation> threadList = new ArrayList<>();
-        double chunks = (double)validWords.size()/(double)threads;
+        int guesses = matrix.getGuesses().size();
+        double chunks = (double)guesses/(double)threads;
         for(int i = 0; i < threads; i++) {
-            List<String> chunk = validWords.subList((int)Math.floor(chunks*i), (int)Math.floor(chunks*(i+1)));
-            CalculateInformation thread = new CalculateInformation(DATA_MATRIX, validWords, chunk);
+            CalculateInformation thread = new CalculateInformation(matrix, candidates, weights,
+                    (int)Math.floor(chunks*i), (int)Math.floor(chunks*(i+1)), mode);
             thread.start();
             threadList.add(thread);
         }
@@ -106,19 +300,221 @@ public class Solver {
             }
             data.addAll(thread.getData());
         }
-        this.wordData = new ArrayList<>(data);
-        this.wordData.sort(Comparator.comparingDouble(WordData::getData));
+        data.sort(order(mode, matrix, candidates));
+        return data;
     }
 
     /**
-     * Gets the top 10 words to be guessed based off average information
+     * Searches deeper than one guess when the scoring mode asks for it
+     * @param ranking the one guess ranking, best first
+     * @param candidates the columns of the remaining answers
+     * @return the final ranking, best first
+     */
+    private List<WordData> refine(List<WordData> ranking, int[] candidates) {
+        if(this.mode == ScoringMode.MINIMAX && this.depth > 1) {
+            return new MinimaxSearch(this.matrix, MINIMAX_BEAM_WIDTH).refine(ranking, candidates, this.depth);
+        }
+        return ranking;
+    }
+
+    /**
+     * Scores guesses in separate worker processes instead of threads from now on. Only the
+     * best guesses of each position are kept in their rankings. Rankings already cached are kept
+     * @param processes the number of worker processes, 0 to go back to threads
+     * @throws IOException if the workers can not be started
+     */
+    public void distribute(int processes) throws IOException {
+        ShardCoordinator previous = this.workers;
+        this.workers = processes > 0 ? new ShardCoordinator(this.pack, this.matrix, processes) : null;
+        if(previous != null) {
+            previous.close();
+        }
+    }
+
+    /**
+     * Gets the order guesses are suggested in, guesses that could be the answer come first
+     * among equally scored guesses
+     * @param mode how the guesses were scored
+     * @param matrix the datamatrix containing the guesses
+     * @param candidates the columns of the remaining answers
+     * @return a comparator putting the best guess first
+     */
+    static Comparator<WordData> order(ScoringMode mode, DataMatrix matrix, int[] candidates) {
+        Set<String> possible = new HashSet<>();
+        for(int col : candidates) {
+            possible.add(matrix.getAnswers().word(col));
+        }
+        return mode.ranking().thenComparing(word -> !possible.contains(word.getWord()));
+    }
+
+    /**
+     * Gets the weights the current scoring mode should use
+     * @return the weight of every answer by column
+     */
+    private double[] weights() {
+        return priorsFor(this.mode).getWeights();
+    }
+
+    /**
+     * Gets the answer weights a scoring mode should use
+     * @param mode the scoring mode
+     * @return the current priors, or uniform priors if the mode does not use priors
+     */
+    private Priors priorsFor(ScoringMode mode) {
+        return mode.usesPriors() ? this.priors : this.uniform;
+    }
+
+    /**
+     * Ranks every guess against any set of candidates with the current settings, without
+     * caching or changing the game. Safe to call from several threads at once
+     * @param candidates the answers still possible
+     * @param threads the number of threads to run
+     * @return the ranking, best first, only the best guesses when {@link #distribute(int) worker processes} are used
+     */
+    public List<WordData> rank(CandidateSet candidates, int threads) {
+        return rank(candidates.columns(), threads, this.workers);
+    }
+
+    /**
+     * Ranks every guess for the current state of the game as well as a policy allows. Starts
+     * from the cached entropy ranking when it ranks every guess and caches a finished entropy ranking
+     * @param policy the quality tier wanted and the time it may take
+     * @return the best ranking found before the deadline, best first
+     */
+    public List<WordData> rank(SolverPolicy policy) {
+        SolverState state = this.current;
+        return rank(state, state.getCandidates(), policy);
+    }
+
+    /**
+     * Ranks every guess against any set of candidates as well as a policy allows, without
+     * changing the game. Starts from the opening ranking when the set holds every answer.
+     * Safe to call from several threads at once
+     * @param candidates the answers still possible
+     * @param policy the quality tier wanted and the time it may take
+     * @return the best ranking found before the deadline, best first
+     */
+    public List<WordData> rank(CandidateSet candidates, SolverPolicy policy) {
+        SolverState root = this.root;
+        return rank(candidates.equals(root.getCandidates()) ? root : null, candidates, policy);
+    }
+
+    /**
+     * Ranks every guess as well as a policy allows and records how long it took
+     * @param state the snapshot whose cached entropy ranking to start from and fill, null for none
+     * @param candidates the answers still possible
+     * @param policy the quality tier wanted and the time it may take
+     * @return the best ranking found before the deadline, best first
+     */
+    private List<WordData> rank(SolverState state, CandidateSet candidates, SolverPolicy policy) {
+        long start = System.nanoTime();
+        Priors priors = this.priors;
+        SolverState.RankingKey key = new SolverState.RankingKey(ScoringMode.ENTROPY, 1, priors, 0);
+        List<WordData> seed = state == null ? null : state.getRanking(key);
+        if(seed != null && seed.size() != this.matrix.getGuesses().size()) {
+            seed = null;
+        }
+        AnytimeSearch search = new AnytimeSearch(this.matrix, priors.getWeights(), DEFAULT_THREADS, policy.deadline(start));
+        List<WordData> ranking = search.search(candidates.columns(), policy.tier(), seed);
+        if(state != null && seed == null && policy.tier() == QualityTier.ENTROPY && search.isComplete()) {
+            state.putRanking(key, ranking);
+        }
+        LatencyMetrics.record(policy.tier().name(), System.nanoTime() - start, search.isComplete());
+        return ranking;
+    }
+
+    /**
+     * Scores a single guess against a set of candidates in a given scoring mode
+     * @param word the guess
+     * @param candidates the answers still possible
+     * @param mode how to score the guess
+     * @return the score of the guess
+     */
+    public double score(String word, CandidateSet candidates, ScoringMode mode) {
+        int row = this.matrix.indexOfGuess(word);
+        if(row < 0) {
+            throw new IllegalArgumentException(word + " can not be guessed");
+        }
+        double[] weights = priorsFor(mode).getWeights();
+        double[] buckets = new double[this.matrix.getPatternCount()];
+        CalculateInformation.histogram(this.matrix, row, candidates.columns(), weights, buckets);
+        return mode.score(buckets, CalculateInformation.total(candidates.columns(), weights));
+    }
+
+    /**
+     * Gets the total weight of a set of candidates as a scoring mode weights them
+     * @param candidates the answers still possible
+     * @param mode the scoring mode
+     * @return the total weight
+     */
+    public double weight(CandidateSet candidates, ScoringMode mode) {
+        return CalculateInformation.total(candidates.columns(), priorsFor(mode).getWeights());
+    }
+
+    /**
+     * Keeps only the candidates that give a result for a guess
+     * @param candidates the answers still possible
+     * @param word the guess
+     * @param pattern the result as an integer
+     * @return the remaining candidates, or null if the word can not be guessed
+     */
+    public CandidateSet filter(CandidateSet candidates, String word, int pattern) {
+        int row = this.matrix.indexOfGuess(word);
+        if(row < 0) return null;
+        return candidates.filter(this.matrix, row, pattern);
+    }
+
+    /**
+     * Gets the set of every answer
+     * @return the candidates at the start of a game
+     */
+    public CandidateSet getAllCandidates() {
+        return this.root.getCandidates();
+    }
+
+    /**
+     * Gets the top 10 words to be guessed based off the scoring mode
      * @return List of top 10 words to guess
      */
     public List<WordData> getTopTen() {
-        if(this.wordData.size() >= 10) {
-            return this.wordData.subList(0, 10);
+        List<WordData> wordData = ranking(this.current, DEFAULT_THREADS);
+        StartupMetrics.mark(StartupMetrics.FIRST_SUGGESTION);
+        if(wordData.size() >= 10) {
+            return wordData.subList(0, 10);
         }
-        return this.wordData;
+        return wordData;
+    }
+
+    /**
+     * Gets the number of answers that are still possible
+     * @return the number of remaining answers
+     */
+    public int getCandidateCount() {
+        return this.current.getCandidates().size();
+    }
+
+    /**
+     * Gets the matrix of results used by this solver
+     * @return the data matrix
+     */
+    DataMatrix getMatrix() {
+        return matrix;
+    }
+
+    /**
+     * Gets the answer weights of the pack being solved
+     * @return the priors
+     */
+    Priors getPriors() {
+        return priors;
+    }
+
+    /**
+     * Gets the dictionary pack being solved
+     * @return the dictionary pack
+     */
+    public DictionaryPack getPack() {
+        return pack;
     }
 
 }
@@ -0,0 +1,50 @@
+package me.sean.wordlesolver.solver;
+
+import java.time.Duration;
+
+/**
+ * How good suggestions should be and how long they may take. The solver refines its
+ * ranking up to the quality tier and returns the best ranking it has once the time budget
+ * runs out
+ *
+ * @param tier the most refined ranking wanted
+ * @param budget how long a request may take
+ *
+ * @author Sean Droll
+ */
+public record SolverPolicy(QualityTier tier, Duration budget) {
+    /**
+     * For a person waiting on every move
+     */
+    public static final SolverPolicy INTERACTIVE = new SolverPolicy(QualityTier.CANDIDATE_BIAS, Duration.ofMillis(50));
+
+    /**
+     * For simulating many games as fast as possible
+     */
+    public static final SolverPolicy SIMULATION = new SolverPolicy(QualityTier.ENTROPY, Duration.ofMillis(20));
+
+    /**
+     * For requests from other programs that want the best answer in reasonable time
+     */
+    public static final SolverPolicy API = new SolverPolicy(QualityTier.LOOKAHEAD, Duration.ofMillis(500));
+
+    /**
+     * Creates a new policy
+     * @param tier the most refined ranking wanted
+     * @param budget how long a request may take
+     */
+    public SolverPolicy {
+        if(tier == null || budget == null || budget.isNegative()) {
+            throw new IllegalArgumentException("A policy needs a tier and a time budget that is not negative");
+        }
+    }
+
+    /**
+     * Gets the time a request started now must finish by
+     * @param start the start of the request, from System.nanoTime()
+     * @return the deadline in System.nanoTime() units
+     */
+    public long deadline(long start) {
+        return start + this.budget.toNanos();
+    }
+}
@@ -0,0 +1,163 @@
+package me.sean.wordlesolver.solver;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A snapshot of the solver after a sequence of guesses. Snapshots form a tree: each move
+ * leads to a child that is created once and then reused, so undoing, redoing and exploring
+ * alternative results only move a pointer, and every snapshot keeps the rankings already
+ * computed for it
+ *
+ * @author Sean Droll
+ */
+public final class SolverState {
+    private final SolverState parent;
+    private final int guess;
+    private final int pattern;
+    private final CandidateSet candidates;
+    private final Map<Long, SolverState> children = new HashMap<>();
+    private final Map<RankingKey, List<WordData>> rankings = new HashMap<>();
+    private SolverState lastChild;
+
+    /**
+     * Identifies how a ranking was computed
+     * @param mode the scoring mode
+     * @param depth the search depth
+     * @param priors the answer weights
+     * @param limit how many of the best guesses were kept, 0 if every guess was ranked
+     */
+    record RankingKey(ScoringMode mode, int depth, Priors priors, int limit) {
+    }
+
+    /**
+     * Creates a new snapshot
+     * @param parent the snapshot before the move, null for the start of the game
+     * @param guess the row of the guess that led here, -1 for the start of the game
+     * @param pattern the result of that guess, -1 for the start of the game
+     * @param candidates the answers still possible
+     */
+    private SolverState(SolverState parent, int guess, int pattern, CandidateSet candidates) {
+        this.parent = parent;
+        this.guess = guess;
+        this.pattern = pattern;
+        this.candidates = candidates;
+    }
+
+    /**
+     * Creates the snapshot at the start of a game
+     * @param candidates every answer
+     * @return the root snapshot
+     */
+    static SolverState root(CandidateSet candidates) {
+        return new SolverState(null, -1, -1, candidates);
+    }
+
+    /**
+     * Creates a new root with the same candidates and rankings as this one but no history
+     * @return the new root
+     */
+    SolverState detach() {
+        SolverState root = new SolverState(null, -1, -1, this.candidates);
+        synchronized(this) {
+            root.rankings.putAll(this.rankings);
+        }
+        return root;
+    }
+
+    /**
+     * Gets the snapshot after a move, filtering the candidates only the first time the move is made
+     * @param matrix the datamatrix containing the results
+     * @param guess the row of the guess
+     * @param pattern the result of the guess
+     * @return the snapshot after the move
+     */
+    synchronized SolverState child(DataMatrix matrix, int guess, int pattern) {
+        long key = ((long) guess << 32) | pattern;
+        SolverState child = this.children.get(key);
+        if(child == null) {
+            child = new SolverState(this, guess, pattern, this.candidates.filter(matrix, guess, pattern));
+            this.children.put(key, child);
+        }
+        return child;
+    }
+
+    /**
+     * Remembers which child was left by an undo so it can be redone
+     * @param child the child that was undone
+     */
+    synchronized void setLastChild(SolverState child) {
+        this.lastChild = child;
+    }
+
+    /**
+     * Gets the child that was most recently undone
+     * @return the child to redo, or null if there is none
+     */
+    synchronized SolverState getLastChild() {
+        return lastChild;
+    }
+
+    /**
+     * Gets a cached ranking
+     * @param key how the ranking was computed
+     * @return the ranking or null if it has not been computed
+     */
+    synchronized List<WordData> getRanking(RankingKey key) {
+        return this.rankings.get(key);
+    }
+
+    /**
+     * Caches a ranking
+     * @param key how the ranking was computed
+     * @param ranking the ranking
+     */
+    synchronized void putRanking(RankingKey key, List<WordData> ranking) {
+        this.rankings.put(key, ranking);
+    }
+
+    /**
+     * Gets the snapshot before the last move
+     * @return the parent snapshot, or null at the start of the game
+     */
+    public SolverState getParent() {
+        return parent;
+    }
+
+    /**
+     * Gets the row of the guess that led to this snapshot
+     * @return the guess row, or -1 at the start of the game
+     */
+    public int getGuess() {
+        return guess;
+    }
+
+    /**
+     * Gets the result of the guess that led to this snapshot
+     * @return the result as an integer, or -1 at the start of the game
+     */
+    public int getPattern() {
+        return pattern;
+    }
+
+    /**
+     * Gets the answers still possible
+     * @return the candidate set
+     */
+    public CandidateSet getCandidates() {
+        return candidates;
+    }
+
+    /**
+     * Gets the number of guesses made to reach this snapshot
+     * @return the number of moves from the start of the game
+     */
+    public int getMoveCount() {
+        int moves = 0;
+        for(SolverState state = this.parent; state != null; state = state.parent) {
+            moves++;
+        }
+        return moves;
+    }
+}
@@ -0,0 +1,105 @@
+package me.sean.wordlesolver.solver;
+
+import me.sean.wordlesolver.dictionary.Dictionary;
+import me.sean.wordlesolver.dictionary.Pattern;
+import me.sean.wordlesolver.dictionary.WordList;
+import me.sean.wordlesolver.metrics.LatencyMetrics;
+import me.sean.wordlesolver.metrics.StartupMetrics;
+
+import java.lang.reflect.Method;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Plays a number of games with the solver so every class it needs is loaded and its hot
+ * loops are compiled. Run with -XX:ArchiveClassesAtExit to build an application class data
+ * archive for fast startup, and with --checkpoint on a JVM supporting CRaC to save a fully
+ * initialised solver that can be restored later
+ *
+ * @author Sean Droll
+ */
+public class WarmUp {
+    private static final int DEFAULT_GAMES = 20;
+
+    /**
+     * Plays games with the solver always guessing its top suggestion, ranked with the
+     * {@link SolverPolicy#SIMULATION} policy
+     * @param solver the solver to warm up
+     * @param dictionary the dictionary the solver is using
+     * @param games the number of games to play
+     * @param seed seed for choosing the secret words
+     */
+    public static void warmUp(Solver solver, Dictionary dictionary, int games, long seed) {
+        WordList answers = dictionary.getAnswers();
+        Pattern codec = Pattern.forLength(dictionary.getLength());
+        Random rng = new Random(seed);
+        for(int game = 0; game < games; game++) {
+            long secret = answers.get(rng.nextInt(answers.size()));
+            solver.reset();
+            for(int turn = 0; turn < 6 && solver.getCandidateCount() > 1; turn++) {
+                List<WordData> ranking = solver.rank(SolverPolicy.SIMULATION);
+                if(ranking.isEmpty()) break;
+                String guess = ranking.get(0).getWord();
+                int pattern = codec.score(WordList.encode(guess), secret);
+                solver.updateList(guess, pattern);
+            }
+        }
+        solver.reset();
+    }
+
+    /**
+     * Asks a JVM supporting CRaC to checkpoint this process, returning once it is restored.
+     * Uses reflection so the solver does not depend on the CRaC api
+     * @return true if the process was checkpointed and restored
+     */
+    private static boolean checkpoint() {
+        for(String name : new String[]{"org.crac.Core", "jdk.crac.Core"}) {
+            try {
+                Method method = Class.forName(name).getMethod("checkpointRestore");
+                method.invoke(null);
+                return true;
+            } catch (ClassNotFoundException e) {
+                // try the next api
+            } catch (ReflectiveOperationException | RuntimeException e) {
+                System.err.println("Checkpoint failed: " + e);
+                return false;
+            }
+        }
+        System.err.println("This JVM does not support CRaC, skipping checkpoint");
+        return false;
+    }
+
+    /**
+     * Warms up the solver for the default dictionary pack and reports how long startup and
+     * each ranking took
+     * @param args the number of games to play, and --checkpoint to checkpoint afterwards
+     */
+    public static void main(String[] args) {
+        int games = DEFAULT_GAMES;
+        boolean checkpoint = false;
+        for(String arg : args) {
+            if(arg.equals("--checkpoint")) {
+                checkpoint = true;
+            } else {
+                games = Integer.parseInt(arg);
+            }
+        }
+        Dictionary dictionary = Dictionary.getDefault();
+        Solver solver = new Solver(dictionary);
+        solver.getTopTen();
+        System.out.print(StartupMetrics.report());
+        StartupMetrics.record("cold");
+
+        long start = System.nanoTime();
+        warmUp(solver, dictionary, games, 0);
+        System.out.printf("Warm up of %d games took %.1f ms%n", games, (System.nanoTime() - start) / 1e6);
+        System.out.print(LatencyMetrics.report());
+
+        if(checkpoint && checkpoint()) {
+            StartupMetrics.restart();
+            solver.getTopTen();
+            System.out.print(StartupMetrics.report());
+            StartupMetrics.record("restored");
+        }
+    }
+}
@@ -1,12 +1,5 @@
 package me.sean.wordlesolver.solver;
 
-import com.google.gson.stream.JsonReader;
-
-import java.io.FileReader;
-import java.io.IOException;
-import java.util.ArrayList;
-import java.util.List;
-
 /**
  * A class that represents a wordle word and the value representing how good of a guess it is
  *
@@ -39,27 +32,4 @@ public class WordData {
     public String toString() {
         return this.word + ": " + this.data;
     }
-
-    /**
-     * Gets a list of words and their data from a json file
-     * @param jsonFile path to json file
-     * @return the list of word data extracted
-     */
-    public static List<WordData> getWordDataFromFile(String jsonFile) {
-        List<WordData> data = new ArrayList<>();
-        try (JsonReader reader = new JsonReader(new FileReader(jsonFile))) {
-            reader.beginObject();
-            while (reader.hasNext()) {
-                String word = reader.nextName();
-                double value = reader.nextDouble();
-                data.add(new WordData(word, value));
-            }
-            reader.endObject();
-        } catch (IOException e) {
-            throw new RuntimeException(e);
-        }
-        return data;
-    }
-
-
 }
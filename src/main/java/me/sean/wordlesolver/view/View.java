@@ -1,6 +1,7 @@
 package me.sean.wordlesolver.view;
 
 import javafx.application.Application;
+import javafx.application.Platform;
 import javafx.geometry.Insets;
 import javafx.geometry.Pos;
 import javafx.scene.Scene;
@@ -11,39 +12,78 @@ import javafx.scene.layout.*;
 import javafx.scene.paint.Color;
 import javafx.scene.text.Font;
 import javafx.stage.Stage;
+import me.sean.wordlesolver.dictionary.Dictionary;
+import me.sean.wordlesolver.dictionary.Pattern;
+import me.sean.wordlesolver.metrics.LatencyMetrics;
+import me.sean.wordlesolver.metrics.StartupMetrics;
 import me.sean.wordlesolver.model.Cell;
 import me.sean.wordlesolver.model.Model;
+import me.sean.wordlesolver.model.ModelEvent;
 import me.sean.wordlesolver.solver.Solver;
+import me.sean.wordlesolver.solver.SolverPolicy;
 import me.sean.wordlesolver.solver.WordData;
 
+import java.util.EnumMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 /**
  * This program plays out like a wordle game,
  * but suggests the statistically best words
  * on the left side of the window.
+ * The scene is built once and only the nodes that changed are updated afterwards,
+ * the solver runs on its own thread so typing is never blocked by it
  *
  * @author Sean Droll
  */
-public class View extends Application implements Observer<Model, String> {
+public class View extends Application implements Observer<Model, ModelEvent> {
     private final static BorderPane BORDER_PANE = new BorderPane();
+    private final static String KEYS = "QWERTYUIOPASDFGHJKLZXCVBNM";
+    private final static int SUGGESTIONS = 10;
+    private final static Map<Model.Colors, Background> CELL_BACKGROUNDS = new EnumMap<>(Model.Colors.class);
+    private final static Map<Model.Colors, Background> KEY_BACKGROUNDS = new EnumMap<>(Model.Colors.class);
+    private final static Background PRESSED_BACKGROUND = new Background(new BackgroundFill(Color.LIGHTGRAY, new CornerRadii(2), new Insets(1)));
+    private final static Font KEY_FONT = new Font("Menlo", 18);
     private Model model;
     private Solver solver;
+    private Label message;
+    private Pattern codec;
+    private Label[][] cells;
+    private final Button[] keys = new Button[26];
+    private final Model.Colors[] keyColors = new Model.Colors[26];
+    private final Label[] suggestions = new Label[SUGGESTIONS];
+    private final ExecutorService solverThread = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "solver");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    static {
+        for(Model.Colors color : Model.Colors.values()) {
+            CELL_BACKGROUNDS.put(color, new Background(new BackgroundFill(color.getColor(), new CornerRadii(2), null)));
+            KEY_BACKGROUNDS.put(color, new Background(new BackgroundFill(color.getColor(), new CornerRadii(2), new Insets(1))));
+        }
+    }
 
     /**
      * Initializes the mainstage of the JavaFX Application
      * @param stage The Mainstage of the program
      */
     private void init(Stage stage) {
-        this.model = new Model(this);
-        this.solver = new Solver();
-        Label top = new Label(this.model.getGameState().getMessage());
-        top.setStyle("""
+        Dictionary dictionary = Dictionary.getDefault();
+        this.model = new Model(this, dictionary);
+        this.solver = new Solver(dictionary);
+        this.codec = Pattern.forLength(dictionary.getLength());
+        this.model.subscribe(this::suggest, this.solverThread);
+        this.message = new Label(this.model.getGameState().getMessage());
+        this.message.setStyle("""
             -fx-font-size: 15;
             -fx-font-family: Modelo;
         """);
-        BORDER_PANE.setTop(top);
-        BorderPane.setAlignment(top, Pos.TOP_CENTER);
+        BORDER_PANE.setTop(this.message);
+        BorderPane.setAlignment(this.message, Pos.TOP_CENTER);
         GridPane mainPane = initializeMainGrid();
         BORDER_PANE.setCenter(mainPane);
         GridPane letterGrid = initializeLetterGrid();
@@ -58,6 +98,7 @@ public class View extends Application implements Observer<Model, String> {
         BorderPane.setAlignment(letterGrid, Pos.BOTTOM_CENTER);
         VBox box = initializeSideList();
         BORDER_PANE.setLeft(box);
+        BorderPane.setAlignment(box, Pos.CENTER_LEFT);
         Scene scene = new Scene(BORDER_PANE);
         scene.setOnKeyPressed(event->{
             KeyCode key = event.getCode();
@@ -75,13 +116,14 @@ public class View extends Application implements Observer<Model, String> {
 
 
     /**
-     * Creates the main center grid of the game
+     * Creates the main center grid of the game, keeping every label so it can be updated later
      * @return A JavaFX GridPane representing the wordle board
      */
     private GridPane initializeMainGrid() {
         GridPane pane = new GridPane();
-        for(int i = 0; i < 5; i++) {
-            for(int j = 0; j < 6; j++) {
+        this.cells = new Label[Model.MAX_GUESSES][this.model.getLength()];
+        for(int i = 0; i < this.model.getLength(); i++) {
+            for(int j = 0; j < Model.MAX_GUESSES; j++) {
                 Cell<String> cell = this.model.get(i, j);
                 Label label = new Label(cell.getValue());
                 label.setStyle("""
@@ -95,7 +137,8 @@ public class View extends Application implements Observer<Model, String> {
                         -fx-border-radius: 2;
                         -fx-border-color: black;
                 """);
-                label.setBackground(new Background(new BackgroundFill(cell.getStatus().getColor(), new CornerRadii(2), null)));
+                label.setBackground(CELL_BACKGROUNDS.get(cell.getStatus()));
+                this.cells[j][i] = label;
                 pane.add(label, i, j);
             }
         }
@@ -109,7 +152,7 @@ public class View extends Application implements Observer<Model, String> {
      * @return A JavaFX GridPane representing the bottom alphabet grid
      */
     private GridPane initializeLetterGrid() {
-        char[] alph = "QWERTYUIOPASDFGHJKLZXCVBNM".toCharArray();
+        char[] alph = KEYS.toCharArray();
         GridPane pane = new GridPane();
         for(int i = 0; i < 10; i++) {
             String value = String.valueOf(alph[i]);
@@ -148,13 +191,17 @@ public class View extends Application implements Observer<Model, String> {
                      -fx-border-radius: 2;
                      -fx-border-insets: 1;
                 """);
-        btn.setFont(new Font("Menlo", 18));
+        btn.setFont(KEY_FONT);
         btn.setMinSize(40, 40);
         btn.setOnMouseClicked(event -> this.model.addCharacter(value));
-        btn.setOnMousePressed(event -> btn.setBackground(new Background(new BackgroundFill(Color.LIGHTGRAY, new CornerRadii(2), new Insets(1)))));
-        btn.setOnMouseReleased(event -> btn.setBackground(new Background(new BackgroundFill(this.model.getLetterStatus(value).getColor(), new CornerRadii(2), new Insets(1)))));
-        btn.setBackground(new Background(new BackgroundFill(this.model.getLetterStatus(value).getColor(), new CornerRadii(2), new Insets(1))));
+        btn.setOnMousePressed(event -> btn.setBackground(PRESSED_BACKGROUND));
+        int letter = value.charAt(0) - 'A';
+        btn.setOnMouseReleased(event -> btn.setBackground(KEY_BACKGROUNDS.get(this.keyColors[letter])));
+        Model.Colors status = this.model.getLetterStatus(value);
+        btn.setBackground(KEY_BACKGROUNDS.get(status));
         btn.setPadding(new Insets(10));
+        this.keys[letter] = btn;
+        this.keyColors[letter] = status;
         return btn;
     }
 
@@ -176,24 +223,49 @@ public class View extends Application implements Observer<Model, String> {
     }
 
     /**
-     * Shows the top 10 statistically best words to guess
+     * Creates the list of the top 10 statistically best words to guess
      * @return a JavaFX VBox that contains the top 10 best guesses in order
      */
     private VBox initializeSideList() {
         VBox box = new VBox();
-        List<WordData> data = solver.getTopTen();
-        int i = 1;
-        for(WordData item : data) {
-            String word = item.getWord();
-            double value = item.getData();
-            String line = String.format("\t" + i + ".) " + word + ": %.3f %n", value);
-            Label label = new Label(line);
-            box.getChildren().add(label);
-            i++;
+        for(int i = 0; i < SUGGESTIONS; i++) {
+            this.suggestions[i] = new Label();
+            box.getChildren().add(this.suggestions[i]);
         }
+        showSuggestions(this.solver.getTopTen());
         return box;
     }
 
+    /**
+     * Shows a new list of suggestions, reusing the labels of the side list
+     * @param data the best guesses in order
+     */
+    private void showSuggestions(List<WordData> data) {
+        for(int i = 0; i < SUGGESTIONS; i++) {
+            String line = "";
+            if(i < data.size()) {
+                WordData item = data.get(i);
+                line = String.format("\t" + (i + 1) + ".) " + item.getWord() + ": %.3f %n", item.getData());
+            }
+            this.suggestions[i].setText(line);
+        }
+    }
+
+    /**
+     * Tells the solver about each scored guess, subscribed on the solver thread. The new
+     * suggestions are ranked within the {@link SolverPolicy#INTERACTIVE} budget and shown on
+     * the JavaFX thread once they are ready
+     * @param model the model that was guessed on
+     * @param event the change in the model
+     */
+    private void suggest(Model model, ModelEvent event) {
+        if(event instanceof ModelEvent.GuessScored scored) {
+            this.solver.updateList(scored.word(), scored.pattern());
+            List<WordData> ranking = this.solver.rank(SolverPolicy.INTERACTIVE);
+            Platform.runLater(() -> showSuggestions(ranking));
+        }
+    }
+
 
     /**
      * Starts the program
@@ -208,51 +280,41 @@ public class View extends Application implements Observer<Model, String> {
         init(primaryStage);
         primaryStage.setTitle("Wordle");
         primaryStage.show();
+        StartupMetrics.mark("shown");
+        StartupMetrics.record("view");
+    }
+
+    /**
+     * Prints how long the suggestions took to rank once the window is closed
+     */
+    @Override
+    public void stop() {
+        System.out.print(LatencyMetrics.report());
     }
 
     /**
-     * Updates the current view when something changes in the model
+     * Updates the nodes affected by a change in the model
      *
      * @param model the model the view is observing
-     * @param message a message that contains the change in the model
+     * @param event the change in the model
      */
     @Override
-    public void update(Model model, String message) {
-        if(message.equals("Guessed")) {
-            String word = model.getLastGuessed();
-            Model.Colors[] colors = model.getLastColors();
-            int[] res = new int[5];
-            for(int i = 0; i < 5; i++) {
-                switch (colors[i]) {
-                    case GREEN -> res[i] = 2;
-                    case YELLOW -> res[i] = 1;
-                    case GRAY -> res[i] = 0;
-                }
+    public void update(Model model, ModelEvent event) {
+        if(event instanceof ModelEvent.CellChanged changed) {
+            this.cells[changed.row()][changed.column()].setText(changed.value());
+        } else if(event instanceof ModelEvent.GuessScored scored) {
+            Label[] row = this.cells[scored.row()];
+            Model.Colors[] colors = new Model.Colors[row.length];
+            Model.Colors.decode(this.codec, scored.pattern(), colors);
+            for(int i = 0; i < row.length; i++) {
+                row[i].setBackground(CELL_BACKGROUNDS.get(colors[i]));
             }
-            this.solver.updateList(word, res);
-            this.solver.splitWork(20);
+        } else if(event instanceof ModelEvent.LetterChanged changed) {
+            int letter = changed.letter() - 'A';
+            this.keyColors[letter] = changed.status();
+            this.keys[letter].setBackground(KEY_BACKGROUNDS.get(changed.status()));
+        } else if(event instanceof ModelEvent.StateChanged changed) {
+            this.message.setText(changed.state().getMessage());
         }
-        GridPane mainPane = initializeMainGrid();
-        BORDER_PANE.setCenter(mainPane);
-        Label top = new Label(this.model.getGameState().getMessage());
-        top.setStyle("""
-            -fx-font-size: 15;
-            -fx-font-family: Modelo;
-        """);
-        BORDER_PANE.setTop(top);
-        BorderPane.setAlignment(top, Pos.TOP_CENTER);
-        GridPane letterGrid = initializeLetterGrid();
-        BorderPane bottom = new BorderPane();
-        Button enter = initializeEnterButton();
-        bottom.setLeft(letterGrid);
-        bottom.setRight(enter);
-        BorderPane.setAlignment(letterGrid, Pos.BOTTOM_LEFT);
-        BorderPane.setAlignment(enter, Pos.CENTER_RIGHT);
-        BORDER_PANE.setBottom(bottom);
-        BorderPane.setAlignment(mainPane, Pos.CENTER);
-        BorderPane.setAlignment(letterGrid, Pos.BOTTOM_CENTER);
-        VBox box = initializeSideList();
-        BORDER_PANE.setLeft(box);
-        BorderPane.setAlignment(box, Pos.CENTER_LEFT);
     }
 }